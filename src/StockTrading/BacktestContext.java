@@ -0,0 +1,41 @@
+package StockTrading;
+
+/**
+ * What a strategy can see and do during a run. Orders fill immediately at the current market
+ * price and are stamped with the time of the bar being replayed.
+ */
+final class BacktestContext {
+    private final Market market;
+    private final Portfolio portfolio;
+    int rejected;
+    long barTimeNanos; // set by the engine before each bar
+
+    BacktestContext(Market market, Portfolio portfolio) {
+        this.market = market;
+        this.portfolio = portfolio;
+    }
+
+    public Market market() { return market; }
+    public Portfolio portfolio() { return portfolio; }
+
+    /** Buys up to qty shares, limited by available cash. Returns the quantity filled. */
+    public int buy(int tickerId, int qty) {
+        Stock s = market.getStock(tickerId);
+        if (s == null || qty <= 0 || s.getPricePaise() <= 0) { rejected++; return 0; }
+        long affordable = portfolio.getCashPaise() / s.getPricePaise();
+        int fill = (int) Math.min(qty, affordable);
+        if (fill <= 0) { rejected++; return 0; }
+        portfolio.buy(market, tickerId, fill, barTimeNanos);
+        return fill;
+    }
+
+    /** Sells up to qty shares, limited by the position held. Returns the quantity filled. */
+    public int sell(int tickerId, int qty) {
+        int fill = Math.min(qty, portfolio.quantityOf(tickerId));
+        if (fill <= 0 || market.getStock(tickerId) == null) { rejected++; return 0; }
+        portfolio.sell(market, tickerId, fill, barTimeNanos);
+        return fill;
+    }
+
+    public int position(int tickerId) { return portfolio.quantityOf(tickerId); }
+}
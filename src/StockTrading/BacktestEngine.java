@@ -0,0 +1,106 @@
+package StockTrading;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * BacktestEngine
+ * ----------------
+ * Replays historical OHLCV bars through {@link Market} prices and a {@link Strategy}
+ * that trades a {@link Portfolio}.
+ *
+ * - Bars are converted once from CSV into a fixed-width binary file ({@link BarFile})
+ *   that is memory-mapped for replay.
+ * - A parameter sweep runs every combination as an independent task on a fork-join pool,
+ *   each with its own Market and Portfolio; only the read-only mapped bars are shared.
+ */
+class BacktestEngine {
+    private final BarFile bars;
+    private final long startingCashPaise;
+    private final ForkJoinPool pool;
+
+    public BacktestEngine(BarFile bars, long startingCashPaise, int parallelism) {
+        this.bars = bars;
+        this.startingCashPaise = startingCashPaise;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /** Runs one backtest per parameter set in parallel; results are in the same order as the inputs. */
+    public BacktestResult[] sweep(List<double[]> paramSets, Function<double[], Strategy> strategies) {
+        BacktestResult[] results = new BacktestResult[paramSets.size()];
+        pool.invoke(new SweepTask(paramSets, strategies, results, 0, results.length));
+        return results;
+    }
+
+    /** Runs a single backtest on the calling thread. */
+    public BacktestResult run(double[] params, Strategy strategy) {
+        long started = System.nanoTime();
+        Market market = Market.empty();
+        int[] ids = new int[bars.tickerCount()];
+        Stock[] stocks = new Stock[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            stocks[i] = new Stock(bars.ticker(i), bars.ticker(i), 0);
+            ids[i] = stocks[i].getId();
+            market.addStock(stocks[i]);
+        }
+        Portfolio portfolio = Portfolio.withCashPaise(startingCashPaise, 1024);
+        BacktestContext ctx = new BacktestContext(market, portfolio);
+        EquityCurve curve = new EquityCurve(startingCashPaise);
+        Bar bar = new Bar();
+
+        strategy.onStart(ctx);
+        BarFile.Cursor cursor = bars.cursor();
+        long currentTime = Long.MIN_VALUE;
+        while (cursor.next(bar)) {
+            if (bar.timeNanos != currentTime) {
+                if (currentTime != Long.MIN_VALUE) curve.record(portfolio.totalMarketValuePaise(market));
+                currentTime = bar.timeNanos;
+            }
+            int local = bar.tickerId;
+            bar.tickerId = ids[local];
+            stocks[local].setPricePaise(bar.closePaise);
+            ctx.barTimeNanos = bar.timeNanos;
+            strategy.onBar(ctx, bar);
+        }
+        strategy.onFinish(ctx);
+        curve.record(portfolio.totalMarketValuePaise(market));
+
+        return new BacktestResult(params, curve, portfolio.getTradeLog().size(), ctx.rejected,
+                bars.barCount(), System.nanoTime() - started);
+    }
+
+    public void shutdown() { pool.shutdown(); }
+
+    @SuppressWarnings("serial") // fork-join task, never serialized
+    private final class SweepTask extends RecursiveAction {
+        private final List<double[]> paramSets;
+        private final Function<double[], Strategy> strategies;
+        private final BacktestResult[] results;
+        private final int from, to;
+
+        SweepTask(List<double[]> paramSets, Function<double[], Strategy> strategies,
+                  BacktestResult[] results, int from, int to) {
+            this.paramSets = paramSets;
+            this.strategies = strategies;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    double[] params = paramSets.get(from);
+                    results[from] = run(params, strategies.apply(params));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(paramSets, strategies, results, from, mid),
+                      new SweepTask(paramSets, strategies, results, mid, to));
+        }
+    }
+}
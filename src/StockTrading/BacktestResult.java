@@ -0,0 +1,40 @@
+package StockTrading;
+
+import java.util.*;
+
+class BacktestResult {
+    private final double[] params;
+    private final EquityCurve curve;
+    private final int trades;
+    private final int rejectedOrders;
+    private final long bars;
+    private final long elapsedNanos;
+
+    BacktestResult(double[] params, EquityCurve curve, int trades, int rejectedOrders, long bars, long elapsedNanos) {
+        this.params = params;
+        this.curve = curve;
+        this.trades = trades;
+        this.rejectedOrders = rejectedOrders;
+        this.bars = bars;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double[] getParams() { return params; }
+    public long getStartEquityPaise() { return curve.startPaise(); }
+    public long getEndEquityPaise() { return curve.endPaise(); }
+    public double getReturn() { return (curve.endPaise() - curve.startPaise()) / (double) curve.startPaise(); }
+    public double getMaxDrawdown() { return curve.maxDrawdown(); }
+    public int getTrades() { return trades; }
+    public int getRejectedOrders() { return rejectedOrders; }
+    public long getBars() { return bars; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    /** Equity curve downsampled to at most a few hundred points, in paise. */
+    public long[] getEquityCurve() { return curve.points(); }
+
+    @Override
+    public String toString() {
+        return String.format("%-18s return %+7.2f%%  maxDD %6.2f%%  end %s  trades %d  (%d bars in %d ms)",
+                Arrays.toString(params), getReturn() * 100, getMaxDrawdown() * 100,
+                Money.format(getEndEquityPaise()), trades, bars, elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,12 @@
+package StockTrading;
+
+/** Reused bar holder; strategies must copy any values they want to keep. */
+final class Bar {
+    int tickerId;
+    long timeNanos;
+    long openPaise;
+    long highPaise;
+    long lowPaise;
+    long closePaise;
+    long volume;
+}
@@ -0,0 +1,204 @@
+package StockTrading;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.*;
+
+/**
+ * Read-only, memory-mapped OHLCV bars in a fixed-width little-endian layout:
+ * <pre>
+ * header : int magic, int version, long barCount, long tickerTableOffset
+ * bars   : int ticker, long epochNanos, long open, high, low, close (paise), long volume
+ * trailer: int tickerCount, then each ticker symbol as modified UTF-8
+ * </pre>
+ * Bars are in non-decreasing time order; ticker is an index into the trailer table.
+ * Files larger than 2 GB are mapped as several segments.
+ */
+final class BarFile implements Closeable {
+    static final int MAGIC = 0x42415253; // "BARS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int RECORD_BYTES = 4 + 8 * 6;
+    private static final long BARS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long barCount;
+    private final String[] tickers;
+
+    private BarFile(FileChannel channel, MappedByteBuffer[] segments, long barCount, String[] tickers) {
+        this.channel = channel;
+        this.segments = segments;
+        this.barCount = barCount;
+        this.tickers = tickers;
+    }
+
+    long barCount() { return barCount; }
+    int tickerCount() { return tickers.length; }
+    String ticker(int index) { return tickers[index]; }
+
+    /** Independent read position over the shared mapping; one per backtest run. */
+    Cursor cursor() { return new Cursor(); }
+
+    final class Cursor {
+        private final ByteBuffer[] views = new ByteBuffer[segments.length];
+        private long index;
+
+        Cursor() {
+            for (int i = 0; i < segments.length; i++) {
+                views[i] = segments[i].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        boolean next(Bar bar) {
+            if (index >= barCount) return false;
+            ByteBuffer b = views[(int) (index / BARS_PER_SEGMENT)];
+            int at = (int) (index % BARS_PER_SEGMENT) * RECORD_BYTES;
+            bar.tickerId = b.getInt(at);
+            bar.timeNanos = b.getLong(at + 4);
+            bar.openPaise = b.getLong(at + 12);
+            bar.highPaise = b.getLong(at + 20);
+            bar.lowPaise = b.getLong(at + 28);
+            bar.closePaise = b.getLong(at + 36);
+            bar.volume = b.getLong(at + 44);
+            index++;
+            return true;
+        }
+    }
+
+    static BarFile open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a bar file: " + path);
+            }
+            if (header.getInt() != VERSION) throw new IOException("Unsupported bar file version: " + path);
+            long count = header.getLong();
+            long tableOffset = header.getLong();
+
+            long tableBytes = ch.size() - tableOffset;
+            if (tableOffset < HEADER_BYTES || tableBytes < 4 || tableBytes > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt bar file: " + path);
+            }
+            ByteBuffer table = ByteBuffer.allocate((int) tableBytes);
+            while (table.hasRemaining() && ch.read(table, tableOffset + table.position()) > 0) { }
+            String[] tickers;
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(table.array()))) {
+                tickers = new String[in.readInt()];
+                for (int i = 0; i < tickers.length; i++) tickers[i] = in.readUTF();
+            }
+
+            int n = (int) ((count + BARS_PER_SEGMENT - 1) / BARS_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long first = i * BARS_PER_SEGMENT;
+                long len = Math.min(BARS_PER_SEGMENT, count - first) * RECORD_BYTES;
+                segments[i] = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * RECORD_BYTES, len);
+            }
+            return new BarFile(ch, segments, count, tickers);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Converts a CSV of {@code ticker,time,open,high,low,close,volume} rows (optional header line)
+     * into the binary format. Time is epoch millis or {@code yyyy-MM-dd[ HH:mm[:ss]]}; rows must be in time order.
+     */
+    static void convertCsv(Path csv, Path out) throws IOException {
+        Map<String, Integer> tickerIndex = new LinkedHashMap<>();
+        long count = 0;
+        long lastTime = Long.MIN_VALUE;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(RECORD_BYTES * 8192).order(ByteOrder.LITTLE_ENDIAN);
+            ch.position(HEADER_BYTES);
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] f = line.split(",");
+                if (f.length < 7) throw new IOException("Line " + lineNo + ": expected 7 fields");
+                long time;
+                try {
+                    time = parseTime(f[1].trim());
+                } catch (RuntimeException e) {
+                    if (lineNo == 1) continue; // header row
+                    throw new IOException("Line " + lineNo + ": bad time '" + f[1] + "'");
+                }
+                if (time < lastTime) throw new IOException("Line " + lineNo + ": bars are not in time order");
+                lastTime = time;
+                Integer idx = tickerIndex.get(f[0].trim().toUpperCase());
+                if (idx == null) {
+                    idx = tickerIndex.size();
+                    tickerIndex.put(f[0].trim().toUpperCase(), idx);
+                }
+                try {
+                    buf.putInt(idx).putLong(time)
+                            .putLong(Money.toPaise(Double.parseDouble(f[2])))
+                            .putLong(Money.toPaise(Double.parseDouble(f[3])))
+                            .putLong(Money.toPaise(Double.parseDouble(f[4])))
+                            .putLong(Money.toPaise(Double.parseDouble(f[5])))
+                            .putLong((long) Double.parseDouble(f[6]));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Line " + lineNo + ": bad number (" + e.getMessage() + ")");
+                }
+                count++;
+                if (!buf.hasRemaining()) drain(ch, buf);
+            }
+            drain(ch, buf);
+
+            long tableOffset = ch.position();
+            ByteArrayOutputStream table = new ByteArrayOutputStream();
+            try (DataOutputStream dout = new DataOutputStream(table)) {
+                dout.writeInt(tickerIndex.size());
+                for (String t : tickerIndex.keySet()) dout.writeUTF(t);
+            }
+            ch.write(ByteBuffer.wrap(table.toByteArray()));
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(tableOffset).flip();
+            ch.write(header, 0);
+        }
+    }
+
+    private static final DateTimeFormatter CSV_TIME = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd")
+            .optionalStart().optionalStart().appendLiteral(' ').optionalEnd()
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .appendPattern("HH:mm").optionalStart().appendPattern(":ss").optionalEnd().optionalEnd()
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+            .toFormatter();
+
+    private static long parseTime(String s) {
+        if (!s.isEmpty() && s.chars().allMatch(Character::isDigit)) return Long.parseLong(s) * 1_000_000L;
+        return EpochClock.toEpochNanos(LocalDateTime.parse(s, CSV_TIME));
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException { channel.close(); }
+}
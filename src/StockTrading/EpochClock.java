@@ -0,0 +1,34 @@
+package StockTrading;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Wall-clock timestamps as primitive epoch nanoseconds.
+ * Anchored once to the system clock and advanced with System.nanoTime(), so reading it never allocates.
+ */
+final class EpochClock {
+    private static final long ORIGIN_EPOCH_NANOS;
+    private static final long ORIGIN_MONOTONIC = System.nanoTime();
+
+    static {
+        Instant now = Instant.now();
+        ORIGIN_EPOCH_NANOS = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    private EpochClock() {}
+
+    static long nowNanos() { return ORIGIN_EPOCH_NANOS + (System.nanoTime() - ORIGIN_MONOTONIC); }
+
+    static long toEpochNanos(LocalDateTime time) {
+        Instant i = time.atZone(ZoneId.systemDefault()).toInstant();
+        return i.getEpochSecond() * 1_000_000_000L + i.getNano();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofInstant(
+                Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L)),
+                ZoneId.systemDefault());
+    }
+}
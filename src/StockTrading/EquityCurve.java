@@ -0,0 +1,50 @@
+package StockTrading;
+
+import java.util.*;
+
+/** Equity sampled once per bar timestamp, decimated into a bounded curve. */
+final class EquityCurve {
+    private static final int MAX_POINTS = 512;
+    private final long[] points = new long[MAX_POINTS];
+    private int count;
+    private int stride = 1;
+    private long sinceLast;
+
+    private final long start;
+    private long last;
+    private long peak;
+    private long low;
+    private double maxDrawdown;
+    private long samples;
+
+    EquityCurve(long startPaise) {
+        this.start = startPaise;
+        this.last = startPaise;
+        this.peak = startPaise;
+        this.low = startPaise;
+    }
+
+    void record(long equityPaise) {
+        samples++;
+        last = equityPaise;
+        if (equityPaise > peak) peak = equityPaise;
+        if (equityPaise < low) low = equityPaise;
+        if (peak > 0) maxDrawdown = Math.max(maxDrawdown, (peak - equityPaise) / (double) peak);
+        if (++sinceLast < stride) return;
+        sinceLast = 0;
+        if (count == MAX_POINTS) {
+            // keep every other point and halve the sampling rate from here on
+            for (int i = 0; i < MAX_POINTS / 2; i++) points[i] = points[i * 2 + 1];
+            count = MAX_POINTS / 2;
+            stride *= 2;
+        }
+        points[count++] = equityPaise;
+    }
+
+    long startPaise() { return start; }
+    long endPaise() { return last; }
+    long lowPaise() { return low; }
+    double maxDrawdown() { return maxDrawdown; }
+    long samples() { return samples; }
+    long[] points() { return Arrays.copyOf(points, count); }
+}
@@ -0,0 +1,108 @@
+package StockTrading;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Arrays;
+
+/**
+ * GatewayLoadTest
+ * ----------------
+ * Drives an {@link OrderGateway} from several client connections, each keeping a fixed number
+ * of orders in flight, and reports round-trip latency percentiles.
+ *
+ * Run: java StockTrading.GatewayLoadTest [port|embedded] [clients] [ordersPerClient] [pipelineDepth]
+ * With "embedded" (the default) a gateway over a fresh market and portfolio is started in-process.
+ */
+class GatewayLoadTest {
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int orders = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+        OrderGateway embedded = null;
+        int port;
+        if (target.equals("embedded")) {
+            embedded = new OrderGateway(new Market(), Portfolio.withCashPaise(Money.toPaise(1e9), 1 << 20), 0);
+            port = embedded.start();
+            System.out.println("Started embedded gateway on port " + port);
+        } else {
+            port = Integer.parseInt(target);
+        }
+
+        long[][] latencies = new long[clients][];
+        Thread[] threads = new Thread[clients];
+        long started = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    latencies[client] = runClient(port, orders, depth);
+                } catch (IOException e) {
+                    System.out.println("Client " + client + " failed: " + e.getMessage());
+                    latencies[client] = new long[0];
+                }
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+        for (Thread t : threads) t.join();
+        long elapsed = System.nanoTime() - started;
+        if (embedded != null) embedded.close();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        if (all.length == 0) { System.out.println("No replies received."); return; }
+        System.out.printf("%d round trips from %d clients (depth %d) in %d ms = %.0f msg/s%n",
+                all.length, clients, depth, elapsed / 1_000_000, all.length / (elapsed / 1e9));
+        System.out.printf("RTT µs  p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                pct(all, 0.50), pct(all, 0.90), pct(all, 0.99), pct(all, 0.999), all[all.length - 1] / 1000.0);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))] / 1000.0;
+    }
+
+    /** Alternates 1-share buys and sells of INFY, keeping `depth` requests outstanding. */
+    private static long[] runClient(int port, int orders, int depth) throws IOException {
+        long symbol = GatewayProtocol.packSymbol("INFY");
+        long[] sentAt = new long[depth];
+        long[] rtt = new long[orders];
+        ByteBuffer out = ByteBuffer.allocateDirect(depth * 22);
+        ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+        try (SocketChannel ch = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            int sent = 0, received = 0;
+            while (received < orders) {
+                // top up the pipeline
+                out.clear();
+                while (sent < orders && sent - received < depth) {
+                    byte side = (sent & 1) == 0 ? GatewayProtocol.SIDE_BUY : GatewayProtocol.SIDE_SELL;
+                    out.put(GatewayProtocol.NEW_ORDER).put(side).putLong(sent).putLong(symbol).putInt(1);
+                    sentAt[sent % depth] = System.nanoTime();
+                    sent++;
+                }
+                out.flip();
+                while (out.hasRemaining()) ch.write(out);
+
+                if (ch.read(in) < 0) throw new IOException("Gateway closed the connection");
+                in.flip();
+                while (in.remaining() > 0) {
+                    int len = GatewayProtocol.responseLength(in.get(in.position()));
+                    if (len < 0) throw new IOException("Unexpected response type " + in.get(in.position()));
+                    if (in.remaining() < len) break;
+                    // replies come back in request order, so the oldest outstanding send time matches
+                    long now = System.nanoTime();
+                    in.position(in.position() + len);
+                    rtt[received] = now - sentAt[received % depth];
+                    received++;
+                }
+                in.compact();
+            }
+        }
+        return rtt;
+    }
+}
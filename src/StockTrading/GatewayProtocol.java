@@ -0,0 +1,87 @@
+package StockTrading;
+
+/**
+ * Wire format for {@link OrderGateway}. Every message starts with a one-byte type followed by a
+ * fixed-size big-endian body. Symbols are up to 8 ASCII characters packed into a long, left-aligned
+ * and zero padded. Money is in paise, times are epoch nanos.
+ * <pre>
+ * Requests
+ *   NEW_ORDER      (1)  side:byte  orderId:long  symbol:long  qty:int                       22 bytes
+ *   CANCEL         (2)  orderId:long                                                          9 bytes
+ *   POSITION_QUERY (3)  requestId:long  symbol:long                                          17 bytes
+ *   MARKET_DATA    (4)  requestId:long  symbol:long                                          17 bytes
+ * Responses
+ *   FILL         (65) status:byte side:byte orderId:long symbol:long qty:int price:long
+ *                     cash:long time:long                                                    47 bytes
+ *   CANCEL_REPLY (66) status:byte orderId:long                                               10 bytes
+ *   POSITION     (67) requestId:long symbol:long qty:int cost:long cash:long                37 bytes
+ *   QUOTE        (68) requestId:long symbol:long price:long time:long                        33 bytes
+ * </pre>
+ */
+final class GatewayProtocol {
+    static final byte NEW_ORDER = 1;
+    static final byte CANCEL = 2;
+    static final byte POSITION_QUERY = 3;
+    static final byte MARKET_DATA = 4;
+
+    static final byte FILL = 65;
+    static final byte CANCEL_REPLY = 66;
+    static final byte POSITION = 67;
+    static final byte QUOTE = 68;
+
+    static final byte SIDE_BUY = 0;
+    static final byte SIDE_SELL = 1;
+
+    static final byte OK = 0;
+    static final byte UNKNOWN_SYMBOL = 1;
+    static final byte INVALID_QUANTITY = 2;
+    static final byte INVALID_SIDE = 3;
+    static final byte INSUFFICIENT_CASH = 4;
+    static final byte INSUFFICIENT_SHARES = 5;
+    static final byte TOO_LATE = 6;
+    static final byte REJECTED = 7; // the portfolio refused the trade, e.g. a total would overflow
+
+    static final int MAX_RESPONSE_BYTES = 47;
+
+    private GatewayProtocol() {}
+
+    /** Total length of a request of the given type, or -1 if the type is unknown. */
+    static int requestLength(byte type) {
+        switch (type) {
+            case NEW_ORDER: return 22;
+            case CANCEL: return 9;
+            case POSITION_QUERY: case MARKET_DATA: return 17;
+            default: return -1;
+        }
+    }
+
+    /** Total length of a response of the given type, or -1 if the type is unknown. */
+    static int responseLength(byte type) {
+        switch (type) {
+            case FILL: return 47;
+            case CANCEL_REPLY: return 10;
+            case POSITION: return 37;
+            case QUOTE: return 33;
+            default: return -1;
+        }
+    }
+
+    static long packSymbol(String ticker) {
+        String t = ticker.toUpperCase();
+        if (t.length() > 8) throw new IllegalArgumentException("Symbol longer than 8 characters: " + ticker);
+        long packed = 0;
+        for (int i = 0; i < 8; i++) packed = (packed << 8) | (i < t.length() ? (t.charAt(i) & 0x7F) : 0);
+        return packed;
+    }
+
+    static String unpackSymbol(long packed) {
+        char[] chars = new char[8];
+        int n = 0;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            char c = (char) ((packed >>> shift) & 0xFF);
+            if (c == 0) break;
+            chars[n++] = c;
+        }
+        return new String(chars, 0, n);
+    }
+}
@@ -0,0 +1,26 @@
+package StockTrading;
+
+import java.io.*;
+
+/** Read-only view of a position, built from the portfolio's per-ticker arrays for display. */
+class Holding implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private final String ticker;
+    private final int qty;
+    private final double avgPrice; // weighted average
+
+    public Holding(String ticker, int qty, double avgPrice) {
+        this.ticker = ticker.toUpperCase();
+        this.qty = qty;
+        this.avgPrice = avgPrice;
+    }
+
+    public String getTicker() { return ticker; }
+    public int getQty() { return qty; }
+    public double getAvgPrice() { return avgPrice; }
+
+    @Override
+    public String toString() {
+        return String.format("%s : %d shares @ avg ₹%.2f", ticker, qty, avgPrice);
+    }
+}
@@ -0,0 +1,61 @@
+package StockTrading;
+
+import java.util.*;
+
+class Market {
+    // indexed by ticker id; listing keeps insertion order for display and ticks
+    private Stock[] byId = new Stock[16];
+    private final List<Stock> listing = new ArrayList<>();
+    private final Random rng = new Random();
+
+    public Market() {
+        // seed with some example stocks
+        this(true);
+    }
+
+    private Market(boolean seedExamples) {
+        if (seedExamples) {
+            addStock(new Stock("TCS", "Tata Consultancy Services", 3500.00));
+            addStock(new Stock("INFY", "Infosys", 1450.00));
+            addStock(new Stock("RELI", "Reliance Industries", 2450.00));
+            addStock(new Stock("HDFC", "HDFC Bank", 1700.00));
+            addStock(new Stock("LT", "Larsen & Toubro", 2200.00));
+        }
+    }
+
+    /** A market with no listings, for backtests that list their own tickers. */
+    public static Market empty() { return new Market(false); }
+
+    public void addStock(Stock s) {
+        int id = s.getId();
+        if (id >= byId.length) byId = Arrays.copyOf(byId, Math.max(id + 1, byId.length * 2));
+        if (byId[id] != null) listing.remove(byId[id]);
+        byId[id] = s;
+        listing.add(s);
+    }
+
+    public Stock getStock(String ticker) { return getStock(TickerRegistry.lookup(ticker)); }
+    public Stock getStock(int tickerId) { return tickerId >= 0 && tickerId < byId.length ? byId[tickerId] : null; }
+    public Collection<Stock> allStocks() { return listing; }
+
+    /** Resolves a ticker to its id once at the edge; -1 if it is not listed here. */
+    public int idOf(String ticker) {
+        int id = TickerRegistry.lookup(ticker);
+        return getStock(id) != null ? id : -1;
+    }
+
+    /**
+     * Randomly move prices to simulate market.
+     * percentageRange e.g. 0.03 means ±3% drift per tick
+     */
+    public void tick(double percentageRange) {
+        long started = TradingMetrics.start();
+        for (int i = 0, n = listing.size(); i < n; i++) {
+            Stock s = listing.get(i);
+            double changePct = (rng.nextDouble() * 2 - 1) * percentageRange;
+            long newPrice = Math.max(Money.PAISE_PER_RUPEE, Math.round(s.getPricePaise() * (1 + changePct)));
+            s.setPricePaise(newPrice);
+        }
+        TradingMetrics.recordTick(started, listing.size());
+    }
+}
@@ -0,0 +1,16 @@
+package StockTrading;
+
+/** Fixed-point money helpers: all amounts in the core are whole paise held in a long. */
+final class Money {
+    static final long PAISE_PER_RUPEE = 100;
+
+    private Money() {}
+
+    static long toPaise(double rupees) { return Math.round(rupees * PAISE_PER_RUPEE); }
+    static double toRupees(long paise) { return paise / (double) PAISE_PER_RUPEE; }
+
+    static String format(long paise) {
+        long abs = Math.abs(paise);
+        return String.format("%s₹%d.%02d", paise < 0 ? "-" : "", abs / PAISE_PER_RUPEE, abs % PAISE_PER_RUPEE);
+    }
+}
@@ -0,0 +1,54 @@
+package StockTrading;
+
+/**
+ * Example strategy: goes long a fixed fraction of cash when the fast simple moving average
+ * of closes crosses above the slow one, and exits when it crosses back below.
+ * params = { fastBars, slowBars, cashFraction }
+ */
+class MovingAverageCrossStrategy implements Strategy {
+    private final int fast;
+    private final int slow;
+    private final double cashFraction;
+    // per ticker id: ring buffer of the last `slow` closes and running sums
+    private long[][] closes = new long[0][];
+    private long[] fastSum = new long[0];
+    private long[] slowSum = new long[0];
+    private int[] seen = new int[0];
+
+    public MovingAverageCrossStrategy(double[] params) {
+        this.fast = Math.max(1, (int) params[0]);
+        this.slow = Math.max(fast + 1, (int) params[1]);
+        this.cashFraction = params.length > 2 ? params[2] : 0.1;
+    }
+
+    @Override
+    public void onStart(BacktestContext ctx) {
+        int n = TickerRegistry.size();
+        closes = new long[n][slow];
+        fastSum = new long[n];
+        slowSum = new long[n];
+        seen = new int[n];
+    }
+
+    @Override
+    public void onBar(BacktestContext ctx, Bar bar) {
+        int id = bar.tickerId;
+        long[] ring = closes[id];
+        int k = seen[id];
+        slowSum[id] += bar.closePaise - (k >= slow ? ring[k % slow] : 0);
+        fastSum[id] += bar.closePaise - (k >= fast ? ring[(k - fast) % slow] : 0);
+        ring[k % slow] = bar.closePaise;
+        seen[id] = k + 1;
+        if (k + 1 < slow) return;
+
+        boolean bullish = fastSum[id] * slow > slowSum[id] * fast;
+        int held = ctx.position(id);
+        if (bullish && held == 0) {
+            long budget = (long) (ctx.portfolio().getCashPaise() * cashFraction);
+            int qty = (int) Math.min(Integer.MAX_VALUE, budget / Math.max(1, bar.closePaise));
+            if (qty > 0) ctx.buy(id, qty);
+        } else if (!bullish && held > 0) {
+            ctx.sell(id, held);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package StockTrading;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * OrderGateway
+ * ----------------
+ * Non-blocking TCP order entry on localhost. A single selector thread accepts clients,
+ * decodes fixed-layout binary requests ({@link GatewayProtocol}) and routes them into
+ * the shared {@link Portfolio} and {@link Market}.
+ *
+ * - Each connection owns one direct read buffer and one direct write buffer for its lifetime.
+ * - Clients may pipeline: complete requests in the read buffer are answered in order and
+ *   flushed in batches until none are left or the socket stops accepting writes.
+ * - If a client stops reading its replies, the gateway stops reading its requests until the
+ *   write buffer drains.
+ * - Portfolio and market access is synchronized on the portfolio, so the console can trade
+ *   alongside the gateway.
+ * - A trade the portfolio refuses is answered with REJECTED; any other unexpected failure
+ *   closes only the connection that sent the request, never the selector thread.
+ */
+class OrderGateway implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Market market;
+    private final Portfolio portfolio;
+    private final int requestedPort;
+    private final SymbolCache symbols = new SymbolCache();
+    private final CountDownLatch bound = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private volatile Selector selector;
+    private volatile int port = -1;
+    private volatile IOException failure;
+    private Thread thread;
+
+    public OrderGateway(Market market, Portfolio portfolio, int port) {
+        this.market = market;
+        this.portfolio = portfolio;
+        this.requestedPort = port;
+    }
+
+    /** Starts the selector thread and returns the bound port (useful when 0 was requested). */
+    public int start() throws IOException {
+        running = true;
+        thread = new Thread(this::loop, "order-gateway");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            bound.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while starting gateway");
+        }
+        if (failure != null) throw failure;
+        return port;
+    }
+
+    public int getPort() { return port; }
+    public boolean isRunning() { return running; }
+
+    @Override
+    public void close() {
+        running = false;
+        Selector s = selector;
+        if (s != null) s.wakeup();
+        if (thread != null) {
+            try { thread.join(2000); }
+            catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    private void loop() {
+        try (Selector sel = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort));
+            server.configureBlocking(false);
+            server.register(sel, SelectionKey.OP_ACCEPT);
+            selector = sel;
+            port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+            bound.countDown();
+
+            while (running) {
+                sel.select(this::onReady, 250);
+            }
+            for (SelectionKey key : sel.keys()) {
+                if (key.attachment() instanceof Connection) closeQuietly(key);
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            running = false;
+            bound.countDown();
+        }
+    }
+
+    private void onReady(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                SocketChannel ch = ((ServerSocketChannel) key.channel()).accept();
+                if (ch == null) return;
+                ch.configureBlocking(false);
+                ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                ch.register(key.selector(), SelectionKey.OP_READ, new Connection());
+                return;
+            }
+            SocketChannel ch = (SocketChannel) key.channel();
+            Connection c = (Connection) key.attachment();
+            if (key.isReadable() && ch.read(c.in) < 0) {
+                closeQuietly(key);
+                return;
+            }
+            int ops = pump(c, ch);
+            if (ops < 0) {
+                closeQuietly(key);
+                return;
+            }
+            key.interestOps(ops);
+        } catch (IOException | CancelledKeyException e) {
+            closeQuietly(key);
+        } catch (RuntimeException e) {
+            System.out.println("Order gateway: closing a connection after an unexpected error: " + e);
+            if (key.attachment() instanceof Connection) closeQuietly(key);
+        }
+    }
+
+    /**
+     * Answers buffered requests and flushes the replies, repeating while complete requests remain
+     * and the socket keeps accepting writes. Returns the interest set to wait on next, or -1 on a
+     * protocol error.
+     */
+    private int pump(Connection c, SocketChannel ch) throws IOException {
+        ByteBuffer in = c.in;
+        ByteBuffer out = c.out;
+        while (true) {
+            in.flip();
+            boolean pending = false;
+            while (in.hasRemaining()) {
+                int len = GatewayProtocol.requestLength(in.get(in.position()));
+                if (len < 0) return -1; // unknown message type: protocol error
+                if (in.remaining() < len) break;
+                if (out.remaining() < GatewayProtocol.MAX_RESPONSE_BYTES) {
+                    pending = true;
+                    break;
+                }
+                handle(in, out);
+            }
+            in.compact();
+
+            out.flip();
+            ch.write(out);
+            out.compact();
+            if (out.position() > 0) return SelectionKey.OP_WRITE; // socket full: resume when writable
+            if (!pending) return SelectionKey.OP_READ;
+        }
+    }
+
+    private void handle(ByteBuffer in, ByteBuffer out) {
+        byte type = in.get();
+        switch (type) {
+            case GatewayProtocol.NEW_ORDER: {
+                byte side = in.get();
+                long orderId = in.getLong();
+                long symbol = in.getLong();
+                int qty = in.getInt();
+                newOrder(out, side, orderId, symbol, qty);
+                break;
+            }
+            case GatewayProtocol.CANCEL: {
+                long orderId = in.getLong();
+                // orders execute immediately at market, so there is never a resting order to cancel
+                out.put(GatewayProtocol.CANCEL_REPLY).put(GatewayProtocol.TOO_LATE).putLong(orderId);
+                break;
+            }
+            case GatewayProtocol.POSITION_QUERY: {
+                long requestId = in.getLong();
+                long symbol = in.getLong();
+                int id = symbols.resolve(symbol);
+                synchronized (portfolio) {
+                    out.put(GatewayProtocol.POSITION).putLong(requestId).putLong(symbol)
+                            .putInt(portfolio.quantityOf(id)).putLong(portfolio.costBasisPaise(id))
+                            .putLong(portfolio.getCashPaise());
+                }
+                break;
+            }
+            case GatewayProtocol.MARKET_DATA: {
+                long requestId = in.getLong();
+                long symbol = in.getLong();
+                int id = symbols.resolve(symbol);
+                long price;
+                synchronized (portfolio) {
+                    Stock s = market.getStock(id);
+                    price = s != null ? s.getPricePaise() : 0;
+                }
+                out.put(GatewayProtocol.QUOTE).putLong(requestId).putLong(symbol)
+                        .putLong(price).putLong(EpochClock.nowNanos());
+                break;
+            }
+            default:
+                throw new IllegalStateException("unreachable: length check rejects unknown types");
+        }
+    }
+
+    private void newOrder(ByteBuffer out, byte side, long orderId, long symbol, int qty) {
+        int id = symbols.resolve(symbol);
+        byte status;
+        long price = 0;
+        long cash;
+        synchronized (portfolio) {
+            Stock s = market.getStock(id);
+            if (s == null) status = GatewayProtocol.UNKNOWN_SYMBOL;
+            else if (qty <= 0) status = GatewayProtocol.INVALID_QUANTITY;
+            else if (side == GatewayProtocol.SIDE_BUY) {
+                price = s.getPricePaise();
+                if (price * qty > portfolio.getCashPaise()) status = GatewayProtocol.INSUFFICIENT_CASH;
+                else status = trade(true, id, qty);
+            } else if (side == GatewayProtocol.SIDE_SELL) {
+                price = s.getPricePaise();
+                if (portfolio.quantityOf(id) < qty) status = GatewayProtocol.INSUFFICIENT_SHARES;
+                else status = trade(false, id, qty);
+            } else status = GatewayProtocol.INVALID_SIDE;
+            cash = portfolio.getCashPaise();
+        }
+        out.put(GatewayProtocol.FILL).put(status).put(side).putLong(orderId).putLong(symbol)
+                .putInt(status == GatewayProtocol.OK ? qty : 0).putLong(price).putLong(cash)
+                .putLong(EpochClock.nowNanos());
+    }
+
+    /** Executes a checked order; the caller holds the portfolio lock. */
+    private byte trade(boolean buy, int id, int qty) {
+        try {
+            if (buy) portfolio.buy(market, id, qty);
+            else portfolio.sell(market, id, qty);
+            return GatewayProtocol.OK;
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            // e.g. a quantity whose cost or resulting position overflows
+            return GatewayProtocol.REJECTED;
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try { key.channel().close(); } catch (IOException ignored) { }
+    }
+
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    }
+
+    /**
+     * Open-addressing map from packed 8-byte symbols to ticker ids, so the hot path does not
+     * build a String per request. Only touched by the selector thread.
+     */
+    private static final class SymbolCache {
+        private long[] keys = new long[64];
+        private int[] ids = new int[64];
+        private int size;
+
+        int resolve(long symbol) {
+            int mask = keys.length - 1;
+            int i = Long.hashCode(symbol * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == symbol) return ids[i];
+                i = (i + 1) & mask;
+            }
+            if (symbol == 0) return -1;
+            int id = TickerRegistry.lookup(GatewayProtocol.unpackSymbol(symbol));
+            if (id < 0) return -1; // don't cache misses, the ticker may be listed later
+            keys[i] = symbol;
+            ids[i] = id;
+            if (++size * 2 > keys.length) rehash();
+            return id;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[keys.length];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = Long.hashCode(oldKeys[j] * 0x9E3779B97F4A7C15L) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                ids[i] = oldIds[j];
+            }
+        }
+    }
+}
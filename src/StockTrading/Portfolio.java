@@ -0,0 +1,329 @@
+package StockTrading;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Cash, positions and history for one trader.
+ * <p>
+ * The trade path works on ticker ids from {@link TickerRegistry}, long paise and epoch nanos,
+ * and writes into primitive columns. The trade and snapshot columns are presized from the
+ * expected trade count given to {@link #withCashPaise}, so within it they never regrow; the
+ * per-ticker row index and FIFO lot queues in {@link TradeLog} still double as they fill, which
+ * averages out to a few tens of bytes per trade.
+ * The String/double/LocalDateTime accessors exist for the console and build views on demand.
+ */
+class Portfolio implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private long cashPaise;
+    // positions indexed by ticker id
+    private int[] positionQty = new int[16];
+    private long[] positionCostPaise = new long[16];
+    private final TradeLog trades;
+    private final SnapshotLog snapshots;
+    // whether trades feed the process-wide TradingMetrics; off unless the owner opts in
+    private transient boolean metricsEnabled;
+
+    public Portfolio(double startingCash) {
+        this(Money.toPaise(startingCash), 64);
+    }
+
+    private Portfolio(long startingCashPaise, int expectedTrades) {
+        this(startingCashPaise, expectedTrades, true);
+    }
+
+    private Portfolio(long startingCashPaise, int expectedTrades, boolean initialSnapshot) {
+        this.cashPaise = startingCashPaise;
+        this.trades = new TradeLog(expectedTrades);
+        // one row per trade plus the opening snapshot
+        this.snapshots = new SnapshotLog(expectedTrades + 1);
+        if (initialSnapshot) takeSnapshot();
+    }
+
+    /**
+     * Creates a portfolio whose trade and snapshot columns hold {@code expectedTrades} trades
+     * before they first grow.
+     */
+    public static Portfolio withCashPaise(long startingCashPaise, int expectedTrades) {
+        return new Portfolio(startingCashPaise, expectedTrades);
+    }
+
+    /**
+     * Reports this portfolio's trades, snapshots and history sizes to {@link TradingMetrics}.
+     * Only one portfolio per process should, or the gauges flip between portfolios.
+     */
+    void enableMetrics() {
+        metricsEnabled = true;
+        TradingMetrics.observeHistory(trades.size(), snapshots.size());
+    }
+
+    public long getCashPaise() { return cashPaise; }
+    public double getCash() { return Money.toRupees(cashPaise); }
+    public TradeLog getTradeLog() { return trades; }
+
+    public int quantityOf(int tickerId) {
+        return tickerId >= 0 && tickerId < positionQty.length ? positionQty[tickerId] : 0;
+    }
+
+    public long costBasisPaise(int tickerId) {
+        return tickerId >= 0 && tickerId < positionCostPaise.length ? positionCostPaise[tickerId] : 0;
+    }
+
+    /** Open positions keyed by ticker, in ticker-id order. Built fresh on each call. */
+    public Map<String, Holding> getHoldings() {
+        Map<String, Holding> view = new LinkedHashMap<>();
+        for (int id = 0; id < positionQty.length; id++) {
+            if (positionQty[id] == 0) continue;
+            String ticker = TickerRegistry.name(id);
+            view.put(ticker, new Holding(ticker, positionQty[id],
+                    Money.toRupees(positionCostPaise[id]) / positionQty[id]));
+        }
+        return view;
+    }
+
+    public List<Trade> getTrades() {
+        List<Trade> view = new ArrayList<>(trades.size());
+        for (int i = 0; i < trades.size(); i++) view.add(trades.toTrade(i));
+        return view;
+    }
+
+    public List<PortfolioSnapshot> getSnapshots() { return snapshots.replay(); }
+
+    public long totalMarketValuePaise(Market market) {
+        long total = cashPaise;
+        for (int id = 0; id < positionQty.length; id++) {
+            if (positionQty[id] == 0) continue;
+            Stock s = market.getStock(id);
+            if (s != null) total += s.getPricePaise() * positionQty[id];
+        }
+        return total;
+    }
+
+    public double totalMarketValue(Market market) {
+        return Money.toRupees(totalMarketValuePaise(market));
+    }
+
+    public void buy(Market market, String ticker, int qty) throws IllegalArgumentException {
+        int id = market.idOf(ticker);
+        if (id < 0) throw new IllegalArgumentException("Unknown ticker: " + ticker);
+        buy(market, id, qty);
+    }
+
+    public void buy(Market market, int tickerId, int qty) throws IllegalArgumentException {
+        buy(market, tickerId, qty, EpochClock.nowNanos());
+    }
+
+    /** Buys with an explicit trade time, e.g. the bar time during a backtest. */
+    void buy(Market market, int tickerId, int qty, long timeNanos) throws IllegalArgumentException {
+        long started = metricsEnabled ? TradingMetrics.start() : 0;
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        Stock s = market.getStock(tickerId);
+        if (s == null) throw new IllegalArgumentException("Unknown ticker: " + TickerRegistry.name(tickerId));
+        long price = s.getPricePaise();
+        long cost = Math.multiplyExact(price, (long) qty);
+        if (cost > cashPaise) throw new IllegalArgumentException(
+                "Insufficient cash: need " + Money.format(cost) + " but have " + Money.format(cashPaise));
+
+        ensurePosition(tickerId);
+        // everything that can throw runs before the first write, so a refused trade changes nothing
+        int newQty = Math.addExact(positionQty[tickerId], qty);
+        cashPaise -= cost;
+        positionQty[tickerId] = newQty;
+        positionCostPaise[tickerId] += cost;
+        trades.append(TradeLog.BUY, tickerId, qty, price, timeNanos);
+        snapshots.append(timeNanos, cashPaise, tickerId, positionQty[tickerId], positionCostPaise[tickerId]);
+        if (metricsEnabled) TradingMetrics.observeHistory(trades.size(), snapshots.size());
+        TradingMetrics.record(TradingMetrics.Op.BUY, started);
+    }
+
+    public void sell(Market market, String ticker, int qty) throws IllegalArgumentException {
+        int id = market.idOf(ticker);
+        if (id < 0) throw new IllegalArgumentException("Unknown ticker: " + ticker);
+        sell(market, id, qty);
+    }
+
+    public void sell(Market market, int tickerId, int qty) throws IllegalArgumentException {
+        sell(market, tickerId, qty, EpochClock.nowNanos());
+    }
+
+    /** Sells with an explicit trade time, e.g. the bar time during a backtest. */
+    void sell(Market market, int tickerId, int qty, long timeNanos) throws IllegalArgumentException {
+        long started = metricsEnabled ? TradingMetrics.start() : 0;
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        int held = quantityOf(tickerId);
+        if (held < qty) throw new IllegalArgumentException("Not enough shares to sell");
+        Stock s = market.getStock(tickerId);
+        if (s == null) throw new IllegalArgumentException("Unknown ticker: " + TickerRegistry.name(tickerId));
+
+        long price = s.getPricePaise();
+        long newCash = Math.addExact(cashPaise, Math.multiplyExact(price, (long) qty));
+        long cost = positionCostPaise[tickerId];
+        // remove cost at the average price, floor(cost * qty / held) without overflowing
+        long removedCost = (cost / held) * qty + (cost % held) * qty / held;
+        positionQty[tickerId] = held - qty;
+        positionCostPaise[tickerId] = positionQty[tickerId] == 0 ? 0 : cost - removedCost;
+        cashPaise = newCash;
+        trades.append(TradeLog.SELL, tickerId, qty, price, timeNanos);
+        snapshots.append(timeNanos, cashPaise, tickerId, positionQty[tickerId], positionCostPaise[tickerId]);
+        if (metricsEnabled) TradingMetrics.observeHistory(trades.size(), snapshots.size());
+        TradingMetrics.record(TradingMetrics.Op.SELL, started);
+    }
+
+    public void takeSnapshot() {
+        snapshots.append(EpochClock.nowNanos(), cashPaise, -1, 0, 0);
+        if (metricsEnabled) TradingMetrics.observeHistory(trades.size(), snapshots.size());
+    }
+
+    private void ensurePosition(int tickerId) {
+        if (tickerId < positionQty.length) return;
+        int cap = Math.max(tickerId + 1, positionQty.length * 2);
+        positionQty = Arrays.copyOf(positionQty, cap);
+        positionCostPaise = Arrays.copyOf(positionCostPaise, cap);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // ids are process-local, so persist the symbol for every id this portfolio can refer to
+        int n = TickerRegistry.size();
+        String[] symbols = new String[n];
+        for (int id = 0; id < n; id++) symbols[id] = TickerRegistry.name(id);
+        out.writeObject(symbols);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String[] symbols = (String[]) in.readObject();
+        int[] remap = new int[symbols.length];
+        int maxId = 0;
+        for (int i = 0; i < symbols.length; i++) {
+            remap[i] = TickerRegistry.intern(symbols[i]);
+            maxId = Math.max(maxId, remap[i]);
+        }
+        int[] qty = new int[Math.max(16, maxId + 1)];
+        long[] cost = new long[qty.length];
+        for (int i = 0; i < Math.min(positionQty.length, remap.length); i++) {
+            qty[remap[i]] = positionQty[i];
+            cost[remap[i]] = positionCostPaise[i];
+        }
+        positionQty = qty;
+        positionCostPaise = cost;
+        trades.remapTickers(remap);
+        snapshots.remapTickers(remap);
+    }
+
+    public void saveToFile(String path) throws IOException {
+        long started = metricsEnabled ? TradingMetrics.start() : 0;
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            oos.writeObject(this);
+        }
+        TradingMetrics.recordSave(started, new File(path).length());
+    }
+
+    /** Reads a portfolio saved by this version or by the original object-graph format (serialVersionUID 1). */
+    public static Portfolio loadFromFile(String path) throws IOException, ClassNotFoundException {
+        long started = TradingMetrics.start();
+        try (ObjectInputStream ois = new LegacyAwareInput(new BufferedInputStream(new FileInputStream(path)))) {
+            Object obj = ois.readObject();
+            if (obj instanceof LegacyPortfolio) obj = fromLegacy((LegacyPortfolio) obj);
+            if (!(obj instanceof Portfolio)) throw new IOException("File does not contain a Portfolio object");
+            Portfolio p = (Portfolio) obj;
+            TradingMetrics.recordLoad(started, new File(path).length());
+            return p;
+        }
+    }
+
+    /* ---------- migration from the original format ---------- */
+
+    /** Rebuilds the columnar state from an original-format portfolio, ticker by ticker. */
+    private static Portfolio fromLegacy(LegacyPortfolio old) {
+        List<LegacyTrade> oldTrades = old.trades != null ? old.trades : Collections.emptyList();
+        Portfolio p = new Portfolio(Money.toPaise(old.cash), Math.max(64, oldTrades.size() * 2), false);
+        if (old.holdings != null) {
+            for (LegacyHolding h : old.holdings.values()) {
+                int id = TickerRegistry.intern(h.ticker);
+                p.ensurePosition(id);
+                p.positionQty[id] = h.qty;
+                p.positionCostPaise[id] = Money.toPaise(h.avgPrice * h.qty);
+            }
+        }
+        for (LegacyTrade t : oldTrades) {
+            p.trades.append(t.type == Trade.Type.BUY ? TradeLog.BUY : TradeLog.SELL, TickerRegistry.intern(t.ticker),
+                    t.quantity, Money.toPaise(t.pricePerShare), EpochClock.toEpochNanos(t.timestamp));
+        }
+        // Old snapshots share their Holding objects with the live map, so every saved snapshot shows the
+        // final positions. Time and cash are still right; positions are rebuilt by replaying the trades,
+        // which the old code paired one-to-one with snapshots after the opening one.
+        List<PortfolioSnapshot> oldSnapshots = old.snapshots != null ? old.snapshots : Collections.emptyList();
+        boolean paired = oldSnapshots.size() == oldTrades.size() + 1;
+        Map<String, long[]> running = new HashMap<>(); // ticker -> {qty, cost paise}
+        for (int i = 0; i < oldSnapshots.size(); i++) {
+            PortfolioSnapshot s = oldSnapshots.get(i);
+            long time = EpochClock.toEpochNanos(s.getTime());
+            long cash = Money.toPaise(s.getCash());
+            if (!paired || i == 0) {
+                p.snapshots.append(time, cash, -1, 0, 0);
+                continue;
+            }
+            LegacyTrade t = oldTrades.get(i - 1);
+            long[] pos = running.computeIfAbsent(t.ticker, k -> new long[2]);
+            if (t.type == Trade.Type.BUY) {
+                pos[0] += t.quantity;
+                pos[1] += Money.toPaise(t.pricePerShare) * t.quantity;
+            } else if (pos[0] > 0) {
+                long removed = (pos[1] / pos[0]) * t.quantity + (pos[1] % pos[0]) * t.quantity / pos[0];
+                pos[0] = Math.max(0, pos[0] - t.quantity);
+                pos[1] = pos[0] == 0 ? 0 : pos[1] - removed;
+            }
+            p.snapshots.append(time, cash, TickerRegistry.intern(t.ticker), (int) pos[0], pos[1]);
+        }
+        if (p.snapshots.size() == 0) p.takeSnapshot();
+        return p;
+    }
+
+    /**
+     * Reads original-format classes (serialVersionUID 1) into the field-compatible mirrors below.
+     * Their fields are identical, so the stream data lines up with the mirror's descriptor.
+     */
+    private static final class LegacyAwareInput extends ObjectInputStream {
+        LegacyAwareInput(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass desc = super.readClassDescriptor();
+            if (desc.getSerialVersionUID() != 1L) return desc;
+            switch (desc.getName()) {
+                case "StockTrading.Portfolio": return ObjectStreamClass.lookup(LegacyPortfolio.class);
+                case "StockTrading.Holding": return ObjectStreamClass.lookup(LegacyHolding.class);
+                case "StockTrading.Trade": return ObjectStreamClass.lookup(LegacyTrade.class);
+                default: return desc;
+            }
+        }
+    }
+
+    private static final class LegacyPortfolio implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private double cash;
+        private Map<String, LegacyHolding> holdings;
+        private List<LegacyTrade> trades;
+        private List<PortfolioSnapshot> snapshots;
+    }
+
+    private static final class LegacyHolding implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String ticker;
+        private int qty;
+        private double avgPrice;
+    }
+
+    private static final class LegacyTrade implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private Trade.Type type;
+        private String ticker;
+        private int quantity;
+        private double pricePerShare;
+        private LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,22 @@
+package StockTrading;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+class PortfolioSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final LocalDateTime time;
+    private final double cash;
+    private final Map<String, Holding> holdings;
+
+    public PortfolioSnapshot(LocalDateTime time, double cash, Map<String, Holding> holdings) {
+        this.time = time;
+        this.cash = cash;
+        this.holdings = holdings;
+    }
+
+    public LocalDateTime getTime() { return time; }
+    public double getCash() { return cash; }
+    public Map<String, Holding> getHoldings() { return holdings; }
+}
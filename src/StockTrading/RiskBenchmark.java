@@ -0,0 +1,65 @@
+package StockTrading;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * RiskBenchmark
+ * ----------------
+ * Runnable checks and throughput figures for {@link RiskEngine}:
+ *
+ * - GBM VaR for a single holding matches the closed form within 2%.
+ * - The same seed gives the same VaR on one thread and on four.
+ * - Paths per second for both price models on the seeded market's five stocks.
+ *
+ * Run: java StockTrading.RiskBenchmark [paths]
+ * Exits with status 1 if a check fails.
+ */
+class RiskBenchmark {
+    private static final double Z_99 = 2.3263478740408408; // standard normal 99% quantile
+
+    public static void main(String[] args) {
+        int paths = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        boolean ok = true;
+        RiskEngine engine = new RiskEngine();
+
+        Market market = new Market();
+        Stock stock = market.allStocks().iterator().next();
+        Portfolio single = Portfolio.withCashPaise(Money.toPaise(1e9), 16);
+        single.buy(market, stock.getId(), 1_000);
+        double vol = 0.02, drift = 0.0005;
+        int days = 10;
+        RiskReport gbm = engine.gbmVaR(single, market, vol, 0, drift, days, paths, 0.99, 7);
+        double value = gbm.getPositionValue();
+        double exact = value * (1 - Math.exp((drift - vol * vol / 2) * days - vol * Math.sqrt(days) * Z_99));
+        double error = Math.abs(gbm.getValueAtRisk() - exact) / exact;
+        System.out.printf("GBM VaR: simulated %.2f, closed form %.2f (%.2f%% off)%n",
+                gbm.getValueAtRisk(), exact, error * 100);
+        ok &= check(error < 0.02, "simulated GBM VaR is more than 2% from the closed form");
+
+        Portfolio all = Portfolio.withCashPaise(Money.toPaise(1e9), 16);
+        for (Stock s : market.allStocks()) all.buy(market, s.getId(), 100);
+        RiskReport pooled = new RiskEngine(new ForkJoinPool(4)).marketTickVaR(all, market, 0.02, 10, paths / 4, 0.99, 11);
+        RiskReport serial = new RiskEngine(new ForkJoinPool(1)).marketTickVaR(all, market, 0.02, 10, paths / 4, 0.99, 11);
+        ok &= check(pooled.getValueAtRisk() == serial.getValueAtRisk()
+                && pooled.getConditionalVaR() == serial.getConditionalVaR(), "VaR depends on the thread count");
+        System.out.printf("Reproducible: VaR %.2f on 1 thread, %.2f on 4%n",
+                serial.getValueAtRisk(), pooled.getValueAtRisk());
+
+        for (int round = 0; round < 2; round++) { // the first round warms up the JIT
+            RiskReport tick = engine.marketTickVaR(all, market, 0.02, 10, paths, 0.99, round);
+            RiskReport corr = engine.gbmVaR(all, market, 0.02, 0.3, 0, 10, paths, 0.99, round);
+            if (round == 0) continue;
+            System.out.printf("Throughput: tick model %,.0f paths/s, correlated GBM %,.0f paths/s (%d holdings, %,d paths)%n",
+                    paths / (tick.getElapsedNanos() / 1e9), paths / (corr.getElapsedNanos() / 1e9),
+                    tick.getPositions(), paths);
+        }
+
+        System.out.println(ok ? "All risk checks passed." : "Risk checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
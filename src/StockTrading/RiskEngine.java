@@ -0,0 +1,279 @@
+package StockTrading;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/**
+ * RiskEngine
+ * ----------------
+ * Monte Carlo value-at-risk for the positions a {@link Portfolio} holds (cash is treated as riskless).
+ *
+ * - Two price models: the same uniform ±range move per step that {@link Market#tick} applies,
+ *   or correlated geometric Brownian motion sampled exactly at the horizon.
+ * - Paths are split into fork-join tasks; every task gets its own {@link SplittableRandom}
+ *   split from one seed, so a run is reproducible regardless of thread count.
+ * - Each path writes one loss into a shared primitive array (disjoint slices per task);
+ *   VaR is a quickselect over that array and CVaR the mean of the tail it leaves behind.
+ */
+class RiskEngine {
+    /** Paths per leaf task; large enough that splitting overhead is negligible. */
+    private static final int PATHS_PER_TASK = 16_384;
+    /** Upper bound so the loss array stays within a reasonable heap (128 MB). */
+    static final int MAX_PATHS = 16_000_000;
+
+    private final ForkJoinPool pool;
+
+    public RiskEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public RiskEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * VaR under the market simulator's own model: every step each price moves by a uniform
+     * percentage in [-percentageRange, +percentageRange], floored at ₹1.
+     */
+    public RiskReport marketTickVaR(Portfolio portfolio, Market market, double percentageRange, int steps,
+                                    int paths, double confidence, long seed) {
+        if (steps <= 0) throw new IllegalArgumentException("Horizon must be at least one step");
+        return run(portfolio, market, held -> new TickModel(percentageRange, steps), paths, confidence, seed,
+                "market tick ±" + percentageRange * 100 + "% × " + steps);
+    }
+
+    /**
+     * VaR under correlated GBM with the same daily volatility for every holding and one
+     * pairwise correlation between all of them.
+     */
+    public RiskReport gbmVaR(Portfolio portfolio, Market market, double dailyVol, double correlation,
+                             double dailyDrift, int days, int paths, double confidence, long seed) {
+        if (days <= 0) throw new IllegalArgumentException("Horizon must be at least one day");
+        // sized inside run, from the holdings it reads under the portfolio lock
+        return run(portfolio, market, n -> {
+            double[] vols = new double[n];
+            double[][] corr = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                vols[i] = dailyVol;
+                for (int j = 0; j < n; j++) corr[i][j] = i == j ? 1.0 : correlation;
+            }
+            return new GbmModel(vols, cholesky(corr), dailyDrift, days);
+        }, paths, confidence, seed, "correlated GBM × " + days + "d");
+    }
+
+    /** VaR under correlated GBM; vols and correlation are ordered like the held tickers by id. */
+    public RiskReport gbmVaR(Portfolio portfolio, Market market, double[] dailyVols, double[][] correlation,
+                             double dailyDrift, int days, int paths, double confidence, long seed) {
+        if (days <= 0) throw new IllegalArgumentException("Horizon must be at least one day");
+        GbmModel model = new GbmModel(dailyVols, cholesky(correlation), dailyDrift, days);
+        return run(portfolio, market, held -> model, paths, confidence, seed, "correlated GBM × " + days + "d");
+    }
+
+    /** {@code models} builds the price model for the number of holdings found under the lock. */
+    private RiskReport run(Portfolio portfolio, Market market, IntFunction<PathModel> models, int paths,
+                           double confidence, long seed, String description) {
+        if (paths <= 0 || paths > MAX_PATHS) throw new IllegalArgumentException("Paths must be 1.." + MAX_PATHS);
+        if (confidence <= 0 || confidence >= 1) throw new IllegalArgumentException("Confidence must be between 0 and 1");
+        long started = System.nanoTime();
+
+        int[] ids;
+        double[] qty;
+        double[] prices;
+        synchronized (portfolio) {
+            ids = heldTickers(portfolio, market);
+            qty = new double[ids.length];
+            prices = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                qty[i] = portfolio.quantityOf(ids[i]);
+                prices[i] = Money.toRupees(market.getStock(ids[i]).getPricePaise());
+            }
+        }
+        PathModel model = models.apply(ids.length);
+        if (model instanceof GbmModel && ((GbmModel) model).vols.length != ids.length) {
+            throw new IllegalArgumentException("Expected " + ids.length + " volatilities, one per holding");
+        }
+        double value = 0;
+        for (int i = 0; i < ids.length; i++) value += qty[i] * prices[i];
+
+        double[] losses = new double[paths];
+        if (ids.length > 0) {
+            pool.invoke(new PathTask(model, qty, prices, value, losses, 0, paths, new SplittableRandom(seed)));
+        }
+
+        // after selecting the VaR element, everything at or above k is in the tail
+        int k = Math.min(paths - 1, (int) Math.ceil(confidence * paths) - 1);
+        double var = select(losses, k);
+        double tail = 0;
+        for (int i = k; i < paths; i++) tail += losses[i];
+        double cvar = tail / (paths - k);
+        double mean = 0;
+        for (double l : losses) mean += l;
+        mean /= paths;
+
+        return new RiskReport(description, ids.length, paths, confidence, value, var, cvar, -mean,
+                System.nanoTime() - started);
+    }
+
+    private static int[] heldTickers(Portfolio portfolio, Market market) {
+        int count = 0;
+        int[] ids = new int[TickerRegistry.size()];
+        for (int id = 0; id < ids.length; id++) {
+            if (portfolio.quantityOf(id) > 0 && market.getStock(id) != null) ids[count++] = id;
+        }
+        return java.util.Arrays.copyOf(ids, count);
+    }
+
+    /* ---------- price models ---------- */
+
+    /** Simulates one path and returns the terminal position value. */
+    private interface PathModel {
+        double terminalValue(SplittableRandom rng, double[] qty, double[] prices, double[] scratch);
+    }
+
+    private static final class TickModel implements PathModel {
+        private final double range;
+        private final int steps;
+
+        TickModel(double range, int steps) {
+            this.range = range;
+            this.steps = steps;
+        }
+
+        @Override
+        public double terminalValue(SplittableRandom rng, double[] qty, double[] prices, double[] scratch) {
+            double value = 0;
+            for (int i = 0; i < prices.length; i++) {
+                double p = prices[i];
+                for (int s = 0; s < steps; s++) p = Math.max(1.0, p * (1 + (rng.nextDouble() * 2 - 1) * range));
+                value += qty[i] * p;
+            }
+            return value;
+        }
+    }
+
+    private static final class GbmModel implements PathModel {
+        final double[] vols;
+        private final double[][] chol;
+        private final double[] drift;
+        private final double[] scale;
+
+        GbmModel(double[] dailyVols, double[][] chol, double dailyDrift, int days) {
+            this.vols = dailyVols;
+            this.chol = chol;
+            this.drift = new double[dailyVols.length];
+            this.scale = new double[dailyVols.length];
+            for (int i = 0; i < dailyVols.length; i++) {
+                drift[i] = (dailyDrift - 0.5 * dailyVols[i] * dailyVols[i]) * days;
+                scale[i] = dailyVols[i] * Math.sqrt(days);
+            }
+        }
+
+        @Override
+        public double terminalValue(SplittableRandom rng, double[] qty, double[] prices, double[] z) {
+            int n = prices.length;
+            for (int i = 0; i < n; i += 2) {
+                // Marsaglia polar method, two independent normals per draw
+                double u, v, s;
+                do {
+                    u = rng.nextDouble() * 2 - 1;
+                    v = rng.nextDouble() * 2 - 1;
+                    s = u * u + v * v;
+                } while (s >= 1 || s == 0);
+                double f = Math.sqrt(-2 * Math.log(s) / s);
+                z[i] = u * f;
+                if (i + 1 < n) z[i + 1] = v * f;
+            }
+            double value = 0;
+            for (int i = 0; i < n; i++) {
+                double w = 0;
+                double[] row = chol[i];
+                for (int j = 0; j <= i; j++) w += row[j] * z[j];
+                value += qty[i] * prices[i] * Math.exp(drift[i] + scale[i] * w);
+            }
+            return value;
+        }
+    }
+
+    /** Lower-triangular Cholesky factor of a correlation matrix. */
+    static double[][] cholesky(double[][] a) {
+        int n = a.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) sum -= l[i][k] * l[j][k];
+                if (i == j) {
+                    if (sum <= 0) throw new IllegalArgumentException("Correlation matrix is not positive definite");
+                    l[i][i] = Math.sqrt(sum);
+                } else {
+                    l[i][j] = sum / l[j][j];
+                }
+            }
+        }
+        return l;
+    }
+
+    @SuppressWarnings("serial") // fork-join task, never serialized
+    private static final class PathTask extends RecursiveAction {
+        private final PathModel model;
+        private final double[] qty, prices;
+        private final double value;
+        private final double[] losses;
+        private final int from, to;
+        private final SplittableRandom rng;
+
+        PathTask(PathModel model, double[] qty, double[] prices, double value, double[] losses,
+                 int from, int to, SplittableRandom rng) {
+            this.model = model;
+            this.qty = qty;
+            this.prices = prices;
+            this.value = value;
+            this.losses = losses;
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PATHS_PER_TASK) {
+                double[] scratch = new double[prices.length + 1];
+                for (int i = from; i < to; i++) losses[i] = value - model.terminalValue(rng, qty, prices, scratch);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            // split before forking so the random streams do not depend on scheduling
+            PathTask left = new PathTask(model, qty, prices, value, losses, from, mid, rng.split());
+            PathTask right = new PathTask(model, qty, prices, value, losses, mid, to, rng);
+            invokeAll(left, right);
+        }
+    }
+
+    /** Hoare-style quickselect: places the k-th smallest at a[k], smaller before it and larger after. */
+    private static double select(double[] a, int k) {
+        int lo = 0, hi = a.length - 1;
+        while (lo < hi) {
+            double pivot = median(a[lo], a[(lo + hi) >>> 1], a[hi]);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    double t = a[i]; a[i] = a[j]; a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else break;
+        }
+        return a[k];
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
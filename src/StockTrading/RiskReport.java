@@ -0,0 +1,46 @@
+package StockTrading;
+
+class RiskReport {
+    private final String model;
+    private final int positions;
+    private final int paths;
+    private final double confidence;
+    private final double positionValue;
+    private final double valueAtRisk;
+    private final double conditionalVaR;
+    private final double expectedPnl;
+    private final long elapsedNanos;
+
+    RiskReport(String model, int positions, int paths, double confidence, double positionValue,
+               double valueAtRisk, double conditionalVaR, double expectedPnl, long elapsedNanos) {
+        this.model = model;
+        this.positions = positions;
+        this.paths = paths;
+        this.confidence = confidence;
+        this.positionValue = positionValue;
+        this.valueAtRisk = valueAtRisk;
+        this.conditionalVaR = conditionalVaR;
+        this.expectedPnl = expectedPnl;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getModel() { return model; }
+    public int getPositions() { return positions; }
+    public int getPaths() { return paths; }
+    public double getConfidence() { return confidence; }
+    public double getPositionValue() { return positionValue; }
+    /** Loss in rupees not exceeded with the given confidence. */
+    public double getValueAtRisk() { return valueAtRisk; }
+    /** Mean loss in rupees over the paths at or beyond the VaR. */
+    public double getConditionalVaR() { return conditionalVaR; }
+    public double getExpectedPnl() { return expectedPnl; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return String.format("%s, %d paths over %d holdings worth ₹%.2f%n" +
+                        "  VaR  %.1f%%: ₹%.2f%n  CVaR %.1f%%: ₹%.2f%n  Expected P&L: ₹%.2f  (%d ms)",
+                model, paths, positions, positionValue, confidence * 100, valueAtRisk,
+                confidence * 100, conditionalVaR, expectedPnl, elapsedNanos / 1_000_000);
+    }
+}
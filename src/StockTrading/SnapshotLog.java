@@ -0,0 +1,80 @@
+package StockTrading;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Portfolio snapshots as primitive columns. Each row records the cash balance and
+ * the one position that changed; {@link Portfolio#getSnapshots()} replays them into full views.
+ */
+class SnapshotLog implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int size;
+    private long[] timesNanos;
+    private long[] cashPaise;
+    private int[] tickerIds;     // -1 when no position changed
+    private int[] quantities;    // position quantity after the change
+    private long[] costsPaise;   // position cost basis after the change
+
+    SnapshotLog(int initialCapacity) {
+        int cap = Math.max(4, initialCapacity);
+        timesNanos = new long[cap];
+        cashPaise = new long[cap];
+        tickerIds = new int[cap];
+        quantities = new int[cap];
+        costsPaise = new long[cap];
+    }
+
+    int size() { return size; }
+
+    void append(long timeNanos, long cash, int tickerId, int qty, long cost) {
+        if (size == timesNanos.length) {
+            int cap = size * 2;
+            timesNanos = Arrays.copyOf(timesNanos, cap);
+            cashPaise = Arrays.copyOf(cashPaise, cap);
+            tickerIds = Arrays.copyOf(tickerIds, cap);
+            quantities = Arrays.copyOf(quantities, cap);
+            costsPaise = Arrays.copyOf(costsPaise, cap);
+        }
+        timesNanos[size] = timeNanos;
+        cashPaise[size] = cash;
+        tickerIds[size] = tickerId;
+        quantities[size] = qty;
+        costsPaise[size] = cost;
+        size++;
+    }
+
+    List<PortfolioSnapshot> replay() {
+        List<PortfolioSnapshot> out = new ArrayList<>(size);
+        Map<String, Holding> running = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (tickerIds[i] >= 0) {
+                String ticker = TickerRegistry.name(tickerIds[i]);
+                if (quantities[i] == 0) running.remove(ticker);
+                else running.put(ticker, new Holding(ticker, quantities[i],
+                        Money.toRupees(costsPaise[i]) / quantities[i]));
+            }
+            out.add(new PortfolioSnapshot(EpochClock.toLocalDateTime(timesNanos[i]),
+                    Money.toRupees(cashPaise[i]), new LinkedHashMap<>(running)));
+        }
+        return out;
+    }
+
+    void remapTickers(int[] remap) {
+        for (int i = 0; i < size; i++) if (tickerIds[i] >= 0) tickerIds[i] = remap[tickerIds[i]];
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // as in TradeLog: trimmed copies on disk, the live arrays keep their capacity
+        int rows = Math.max(4, size);
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("size", size);
+        fields.put("timesNanos", Arrays.copyOf(timesNanos, rows));
+        fields.put("cashPaise", Arrays.copyOf(cashPaise, rows));
+        fields.put("tickerIds", Arrays.copyOf(tickerIds, rows));
+        fields.put("quantities", Arrays.copyOf(quantities, rows));
+        fields.put("costsPaise", Arrays.copyOf(costsPaise, rows));
+        out.writeFields();
+    }
+}
@@ -0,0 +1,32 @@
+package StockTrading;
+
+import java.io.*;
+
+class Stock implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private final String ticker;
+    private final int id;
+    private final String name;
+    private long pricePaise;
+
+    public Stock(String ticker, String name, double initialPrice) {
+        this.ticker = ticker.toUpperCase();
+        this.id = TickerRegistry.intern(this.ticker);
+        this.name = name;
+        this.pricePaise = Money.toPaise(initialPrice);
+    }
+
+    public String getTicker() { return ticker; }
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public double getPrice() { return Money.toRupees(pricePaise); }
+    public long getPricePaise() { return pricePaise; }
+
+    public void setPrice(double price) { this.pricePaise = Money.toPaise(price); }
+    public void setPricePaise(long pricePaise) { this.pricePaise = pricePaise; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) - %s", name, ticker, Money.format(pricePaise));
+    }
+}
@@ -1,4 +1,6 @@
 package StockTrading;import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -15,247 +17,18 @@ import java.util.*;
  * - Portfolio performance snapshots over time
  * - Simple file persistence (save/load portfolio and trade history)
  *
- * Single-file implementation for learning and easy compilation.
- * Compile: javac StockTradingApp.java
- * Run:     java StockTradingApp
+ * One top-level type per file in package StockTrading; javac finds the rest from the entry point.
+ * Compile (from src): javac StockTrading/StockTradingApp.java
+ * Run     (from src): java StockTrading.StockTradingApp
  */
 public class StockTradingApp {
     public static void main(String[] args) {
+        TradingMetrics.registerMBean();
         ConsoleUI ui = new ConsoleUI();
         ui.start();
     }
 }
 
-/* ==========================
-   Domain classes
-   ========================== */
-
-class Stock implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private final String ticker;
-    private final String name;
-    private double price;
-
-    public Stock(String ticker, String name, double initialPrice) {
-        this.ticker = ticker.toUpperCase();
-        this.name = name;
-        this.price = initialPrice;
-    }
-
-    public String getTicker() { return ticker; }
-    public String getName() { return name; }
-    public double getPrice() { return price; }
-
-    public void setPrice(double price) { this.price = price; }
-
-    @Override
-    public String toString() {
-        return String.format("%s (%s) - ₹%.2f", name, ticker, price);
-    }
-}
-
-class Trade implements Serializable {
-    private static final long serialVersionUID = 1L;
-    public enum Type { BUY, SELL }
-
-    private final Type type;
-    private final String ticker;
-    private final int quantity;
-    private final double pricePerShare;
-    private final LocalDateTime timestamp;
-
-    public Trade(Type type, String ticker, int quantity, double pricePerShare) {
-        this.type = type;
-        this.ticker = ticker.toUpperCase();
-        this.quantity = quantity;
-        this.pricePerShare = pricePerShare;
-        this.timestamp = LocalDateTime.now();
-    }
-
-    public Type getType() { return type; }
-    public String getTicker() { return ticker; }
-    public int getQuantity() { return quantity; }
-    public double getPricePerShare() { return pricePerShare; }
-    public LocalDateTime getTimestamp() { return timestamp; }
-
-    @Override
-    public String toString() {
-        return String.format("[%s] %s %d × %s @ ₹%.2f",
-                timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
-                type, quantity, ticker, pricePerShare);
-    }
-}
-
-class Holding implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private final String ticker;
-    private int qty;
-    private double avgPrice; // weighted average
-
-    public Holding(String ticker, int qty, double avgPrice) {
-        this.ticker = ticker.toUpperCase();
-        this.qty = qty;
-        this.avgPrice = avgPrice;
-    }
-
-    public String getTicker() { return ticker; }
-    public int getQty() { return qty; }
-    public double getAvgPrice() { return avgPrice; }
-
-    public void addShares(int q, double price) {
-        double totalCost = this.avgPrice * this.qty + price * q;
-        this.qty += q;
-        if (this.qty > 0) this.avgPrice = totalCost / this.qty;
-        else this.avgPrice = 0;
-    }
-
-    public void removeShares(int q) {
-        if (q > qty) throw new IllegalArgumentException("Not enough shares to remove");
-        qty -= q;
-        if (qty == 0) avgPrice = 0;
-    }
-
-    @Override
-    public String toString() {
-        return String.format("%s : %d shares @ avg ₹%.2f", ticker, qty, avgPrice);
-    }
-}
-
-/* ==========================
-   Portfolio + Persistence
-   ========================== */
-
-class Portfolio implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private double cash;
-    private final Map<String, Holding> holdings = new HashMap<>();
-    private final List<Trade> trades = new ArrayList<>();
-
-    // snapshots: timestamp -> totalValue
-    private final List<PortfolioSnapshot> snapshots = new ArrayList<>();
-
-    public Portfolio(double startingCash) {
-        this.cash = startingCash;
-        takeSnapshot();
-    }
-
-    public double getCash() { return cash; }
-    public Map<String, Holding> getHoldings() { return holdings; }
-    public List<Trade> getTrades() { return trades; }
-    public List<PortfolioSnapshot> getSnapshots() { return snapshots; }
-
-    public double totalMarketValue(Market market) {
-        double total = cash;
-        for (Holding h : holdings.values()) {
-            Stock s = market.getStock(h.getTicker());
-            double price = (s != null) ? s.getPrice() : 0.0;
-            total += price * h.getQty();
-        }
-        return total;
-    }
-
-    public void buy(Market market, String ticker, int qty) throws IllegalArgumentException {
-        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        Stock s = market.getStock(ticker);
-        if (s == null) throw new IllegalArgumentException("Unknown ticker: " + ticker);
-        double cost = s.getPrice() * qty;
-        if (cost > cash) throw new IllegalArgumentException("Insufficient cash: need ₹" + cost + " but have ₹" + cash);
-
-        cash -= cost;
-        holdings.compute(ticker.toUpperCase(), (t, h) -> {
-            if (h == null) return new Holding(ticker, qty, s.getPrice());
-            h.addShares(qty, s.getPrice());
-            return h;
-        });
-        trades.add(new Trade(Trade.Type.BUY, ticker, qty, s.getPrice()));
-        takeSnapshot();
-    }
-
-    public void sell(Market market, String ticker, int qty) throws IllegalArgumentException {
-        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
-        Holding h = holdings.get(ticker.toUpperCase());
-        if (h == null || h.getQty() < qty) throw new IllegalArgumentException("Not enough shares to sell");
-        Stock s = market.getStock(ticker);
-        if (s == null) throw new IllegalArgumentException("Unknown ticker: " + ticker);
-
-        double proceeds = s.getPrice() * qty;
-        h.removeShares(qty);
-        if (h.getQty() == 0) holdings.remove(ticker.toUpperCase());
-        cash += proceeds;
-        trades.add(new Trade(Trade.Type.SELL, ticker, qty, s.getPrice()));
-        takeSnapshot();
-    }
-
-    public void takeSnapshot() {
-        snapshots.add(new PortfolioSnapshot(LocalDateTime.now(), cash, new HashMap<>(holdings)));
-    }
-
-    public void saveToFile(String path) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path))) {
-            oos.writeObject(this);
-        }
-    }
-
-    public static Portfolio loadFromFile(String path) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path))) {
-            Object obj = ois.readObject();
-            if (obj instanceof Portfolio) return (Portfolio) obj;
-            else throw new IOException("File does not contain a Portfolio object");
-        }
-    }
-}
-
-class PortfolioSnapshot implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private final LocalDateTime time;
-    private final double cash;
-    private final Map<String, Holding> holdings;
-
-    public PortfolioSnapshot(LocalDateTime time, double cash, Map<String, Holding> holdings) {
-        this.time = time;
-        this.cash = cash;
-        this.holdings = holdings;
-    }
-
-    public LocalDateTime getTime() { return time; }
-    public double getCash() { return cash; }
-    public Map<String, Holding> getHoldings() { return holdings; }
-}
-
-/* ==========================
-   Market simulator
-   ========================== */
-
-class Market {
-    private final Map<String, Stock> stocks = new HashMap<>();
-    private final Random rng = new Random();
-
-    public Market() {
-        // seed with some example stocks
-        addStock(new Stock("TCS", "Tata Consultancy Services", 3500.00));
-        addStock(new Stock("INFY", "Infosys", 1450.00));
-        addStock(new Stock("RELI", "Reliance Industries", 2450.00));
-        addStock(new Stock("HDFC", "HDFC Bank", 1700.00));
-        addStock(new Stock("LT", "Larsen & Toubro", 2200.00));
-    }
-
-    public void addStock(Stock s) { stocks.put(s.getTicker(), s); }
-    public Stock getStock(String ticker) { return stocks.get(ticker.toUpperCase()); }
-    public Collection<Stock> allStocks() { return stocks.values(); }
-
-    /**
-     * Randomly move prices to simulate market.
-     * percentageRange e.g. 0.03 means ±3% drift per tick
-     */
-    public void tick(double percentageRange) {
-        for (Stock s : stocks.values()) {
-            double changePct = (rng.nextDouble() * 2 - 1) * percentageRange;
-            double newPrice = Math.max(1.0, s.getPrice() * (1 + changePct));
-            s.setPrice(Math.round(newPrice * 100.0) / 100.0);
-        }
-    }
-}
-
 /* ==========================
    Console UI
    ========================== */
@@ -265,15 +38,35 @@ class ConsoleUI {
     private final Market market = new Market();
     private Portfolio portfolio;
     private final String SAVE_FILE = "portfolio.dat";
+    private String saveTarget = SAVE_FILE;
+    private static final int TRADES_PER_PAGE = 20;
+    private static final int DEFAULT_GATEWAY_PORT = 9099;
+    private OrderGateway gateway;
+    private final RiskEngine riskEngine = new RiskEngine();
 
     public ConsoleUI() {
+        portfolio = openPortfolio();
+        // the metrics describe this session's portfolio, not backtest or load-test ones
+        portfolio.enableMetrics();
+    }
+
+    private Portfolio openPortfolio() {
         // Try to load saved portfolio, otherwise create a new one
+        if (!new File(SAVE_FILE).exists()) {
+            System.out.println("Starting new portfolio with ₹100,000.00 cash.");
+            return new Portfolio(100000.00); // starting cash ₹100,000
+        }
         try {
-            portfolio = Portfolio.loadFromFile(SAVE_FILE);
+            Portfolio loaded = Portfolio.loadFromFile(SAVE_FILE);
             System.out.println("Loaded saved portfolio from " + SAVE_FILE);
+            return loaded;
         } catch (Exception e) {
-            portfolio = new Portfolio(100000.00); // starting cash ₹100,000
-            System.out.println("Starting new portfolio with ₹100,000.00 cash.");
+            // keep the unreadable file intact; this session saves next to it instead
+            saveTarget = SAVE_FILE + ".new";
+            System.out.println("Could not read " + SAVE_FILE + ": " + e);
+            System.out.println("Starting new portfolio with ₹100,000.00 cash. " + SAVE_FILE
+                    + " will not be overwritten; saves go to " + saveTarget + ".");
+            return new Portfolio(100000.00);
         }
     }
 
@@ -291,6 +84,11 @@ class ConsoleUI {
                 case "6": case "snapshots": showSnapshots(); break;
                 case "7": case "tick": manualTick(); break;
                 case "8": case "save": save(); break;
+                case "9": case "report": showReport(); break;
+                case "10": case "backtest": runBacktest(); break;
+                case "11": case "gateway": toggleGateway(); break;
+                case "12": case "risk": showRisk(); break;
+                case "13": case "metrics": showMetrics(); break;
                 case "q": case "quit": running = false; saveOnExit(); break;
                 default: System.out.println("Unknown command. Type the number or keyword (e.g. 'buy').");
             }
@@ -308,6 +106,12 @@ class ConsoleUI {
         System.out.println("6) Portfolio snapshots (performance over time)");
         System.out.println("7) Advance market tick (simulate price change)");
         System.out.println("8) Save portfolio to disk");
+        System.out.println("9) Trade report (P&L, VWAP, turnover)");
+        System.out.println("10) Backtest moving-average strategy on historical bars");
+        System.out.println("11) " + (gateway != null ? "Stop order gateway (port " + gateway.getPort() + ")"
+                : "Start order gateway (binary TCP on localhost)"));
+        System.out.println("12) Value-at-risk (Monte Carlo)");
+        System.out.println("13) Engine metrics (latency, throughput, persistence)");
         System.out.println("Q) Quit");
         System.out.print("Enter choice: ");
     }
@@ -325,13 +129,14 @@ class ConsoleUI {
         try {
             System.out.print("Enter ticker to BUY: ");
             String ticker = scanner.nextLine().trim().toUpperCase();
-            Stock s = market.getStock(ticker);
-            if (s == null) { System.out.println("Unknown ticker."); return; }
+            int id = market.idOf(ticker);
+            if (id < 0) { System.out.println("Unknown ticker."); return; }
+            Stock s = market.getStock(id);
             System.out.println(s);
             System.out.print("Enter quantity: ");
             int qty = Integer.parseInt(scanner.nextLine().trim());
-            portfolio.buy(market, ticker, qty);
-            System.out.println("Bought " + qty + " shares of " + ticker + " at ₹" + s.getPrice());
+            synchronized (portfolio) { portfolio.buy(market, id, qty); }
+            System.out.println("Bought " + qty + " shares of " + ticker + " at " + Money.format(s.getPricePaise()));
         } catch (NumberFormatException nfe) {
             System.out.println("Invalid number entered.");
         } catch (IllegalArgumentException iae) {
@@ -343,12 +148,17 @@ class ConsoleUI {
         try {
             System.out.print("Enter ticker to SELL: ");
             String ticker = scanner.nextLine().trim().toUpperCase();
-            Holding h = portfolio.getHoldings().get(ticker);
-            if (h == null) { System.out.println("You have no holdings of " + ticker); return; }
-            System.out.println(h + " current market price: " + market.getStock(ticker).getPrice());
+            int id = market.idOf(ticker);
+            String held;
+            synchronized (portfolio) {
+                Holding h = portfolio.getHoldings().get(ticker);
+                held = id < 0 || h == null ? null : h + " current market price: " + market.getStock(id).getPrice();
+            }
+            if (held == null) { System.out.println("You have no holdings of " + ticker); return; }
+            System.out.println(held);
             System.out.print("Enter quantity: ");
             int qty = Integer.parseInt(scanner.nextLine().trim());
-            portfolio.sell(market, ticker, qty);
+            synchronized (portfolio) { portfolio.sell(market, id, qty); }
             System.out.println("Sold " + qty + " shares of " + ticker);
         } catch (NumberFormatException nfe) {
             System.out.println("Invalid number entered.");
@@ -359,38 +169,110 @@ class ConsoleUI {
 
     private void showPortfolio() {
         System.out.println("\n--- Portfolio ---");
-        System.out.printf("Cash: ₹%.2f\n", portfolio.getCash());
-        System.out.println("Holdings:");
-        if (portfolio.getHoldings().isEmpty()) System.out.println("  (none)");
-        else {
-            System.out.printf("%-8s %8s %12s %12s\n", "Ticker", "Qty", "Avg Price", "Market Value");
-            for (Holding h : portfolio.getHoldings().values()) {
-                Stock s = market.getStock(h.getTicker());
-                double mval = (s != null) ? s.getPrice() * h.getQty() : 0.0;
-                System.out.printf("%-8s %8d %12.2f %12.2f\n", h.getTicker(), h.getQty(), h.getAvgPrice(), mval);
+        // the ticker thread and the gateway trade under this lock; hold it so the rows add up
+        synchronized (portfolio) {
+            System.out.printf("Cash: ₹%.2f\n", portfolio.getCash());
+            System.out.println("Holdings:");
+            if (portfolio.getHoldings().isEmpty()) System.out.println("  (none)");
+            else {
+                System.out.printf("%-8s %8s %12s %12s\n", "Ticker", "Qty", "Avg Price", "Market Value");
+                for (Holding h : portfolio.getHoldings().values()) {
+                    Stock s = market.getStock(h.getTicker());
+                    double mval = (s != null) ? s.getPrice() * h.getQty() : 0.0;
+                    System.out.printf("%-8s %8d %12.2f %12.2f\n", h.getTicker(), h.getQty(), h.getAvgPrice(), mval);
+                }
             }
+            System.out.printf("Total portfolio value: ₹%.2f\n", portfolio.totalMarketValue(market));
         }
-        System.out.printf("Total portfolio value: ₹%.2f\n", portfolio.totalMarketValue(market));
     }
 
     private void showTrades() {
         System.out.println("\n--- Trade History ---");
-        if (portfolio.getTrades().isEmpty()) System.out.println("(no trades yet)");
-        else portfolio.getTrades().forEach(t -> System.out.println("  " + t));
+        TradeLog log = portfolio.getTradeLog();
+        synchronized (portfolio) {
+            if (log.size() == 0) { System.out.println("(no trades yet)"); return; }
+        }
+
+        System.out.print("Ticker (blank for all): ");
+        String ticker = scanner.nextLine().trim().toUpperCase();
+        int id = ticker.isEmpty() ? -1 : TickerRegistry.lookup(ticker);
+        if (!ticker.isEmpty() && id < 0) { System.out.println("No trades for " + ticker); return; }
+        System.out.print("Period [all/today/week/month] (blank for all): ");
+        String period = scanner.nextLine().trim().toLowerCase();
+        long to = Long.MAX_VALUE;
+        long from;
+        switch (period) {
+            case "today": from = EpochClock.toEpochNanos(LocalDate.now().atStartOfDay()); break;
+            case "week": from = EpochClock.toEpochNanos(LocalDateTime.now().minusWeeks(1)); break;
+            case "month": from = EpochClock.toEpochNanos(LocalDateTime.now().minusMonths(1)); break;
+            default: from = Long.MIN_VALUE;
+        }
+
+        int[] rows = new int[TRADES_PER_PAGE];
+        int page = 1;
+        while (true) {
+            // lock per page, never across the prompt; the count is re-read so new trades show up
+            int total;
+            synchronized (portfolio) {
+                total = log.count(id, from, to);
+                if (total == 0) { System.out.println("(no matching trades)"); return; }
+                int n = log.query(id, from, to, page - 1, rows);
+                for (int i = 0; i < n; i++) System.out.println("  " + log.toTrade(rows[i]));
+            }
+            int pages = (total + TRADES_PER_PAGE - 1) / TRADES_PER_PAGE;
+            System.out.printf("Page %d of %d (%d trades). Enter page number or blank to return: ", page, pages, total);
+            String next = scanner.nextLine().trim();
+            if (next.isEmpty()) return;
+            try {
+                int p = Integer.parseInt(next);
+                if (p < 1 || p > pages) System.out.println("No such page.");
+                else page = p;
+            } catch (NumberFormatException nfe) {
+                return;
+            }
+        }
+    }
+
+    private void showReport() {
+        System.out.println("\n--- Trade Report ---");
+        synchronized (portfolio) { printReport(portfolio.getTradeLog()); }
+    }
+
+    private void printReport(TradeLog log) {
+        if (log.size() == 0) { System.out.println("(no trades yet)"); return; }
+        System.out.printf("%-8s %6s %6s %14s %12s %14s %14s\n",
+                "Ticker", "Trades", "Buys", "Turnover", "VWAP", "P&L (FIFO)", "P&L (Avg)");
+        int trades = 0;
+        long turnover = 0, fifo = 0, avg = 0;
+        for (int id = 0; id < TickerRegistry.size(); id++) {
+            TradeLog.TickerAggregate a = log.aggregate(id);
+            if (a == null) continue;
+            System.out.printf("%-8s %6d %6d %14.2f %12.2f %14.2f %14.2f\n", TickerRegistry.name(id),
+                    a.tradeCount(), a.buyCount(), Money.toRupees(a.turnoverPaise()), Money.toRupees(a.vwapPaise()),
+                    Money.toRupees(a.realizedFifoPaise()), Money.toRupees(a.realizedAvgCostPaise()));
+            trades += a.tradeCount();
+            turnover += a.turnoverPaise();
+            fifo += a.realizedFifoPaise();
+            avg += a.realizedAvgCostPaise();
+        }
+        System.out.printf("%-8s %6d %6s %14.2f %12s %14.2f %14.2f\n", "TOTAL", trades, "",
+                Money.toRupees(turnover), "", Money.toRupees(fifo), Money.toRupees(avg));
     }
 
     private void showSnapshots() {
         System.out.println("\n--- Portfolio Snapshots (time -> total value) ---");
         DateTimeFormatter f = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         int i = 0;
-        for (PortfolioSnapshot snap : portfolio.getSnapshots()) {
-            double total = snap.getCash();
-            for (Holding h : snap.getHoldings().values()) {
-                Stock s = market.getStock(h.getTicker());
-                double price = (s != null) ? s.getPrice() : 0.0;
-                total += price * h.getQty();
+        synchronized (portfolio) {
+            for (PortfolioSnapshot snap : portfolio.getSnapshots()) {
+                double total = snap.getCash();
+                for (Holding h : snap.getHoldings().values()) {
+                    Stock s = market.getStock(h.getTicker());
+                    double price = (s != null) ? s.getPrice() : 0.0;
+                    total += price * h.getQty();
+                }
+                System.out.printf("%2d) %s -> ₹%.2f\n", ++i, snap.getTime().format(f), total);
             }
-            System.out.printf("%2d) %s -> ₹%.2f\n", ++i, snap.getTime().format(f), total);
         }
         System.out.println("(Snapshots are taken automatically after each trade and at startup)");
     }
@@ -400,24 +282,148 @@ class ConsoleUI {
         try {
             double pct = Double.parseDouble(scanner.nextLine().trim());
             if (pct < 0 || pct > 1) { System.out.println("Enter a sensible percentage (0 - 1)"); return; }
-            market.tick(pct);
+            synchronized (portfolio) { market.tick(pct); }
             System.out.println("Market advanced. Use 'market' to view prices.");
         } catch (NumberFormatException nfe) {
             System.out.println("Invalid number entered.");
         }
     }
 
+    private void runBacktest() {
+        System.out.print("Bar file (.csv is converted to .bars once): ");
+        String file = scanner.nextLine().trim();
+        try {
+            Path path = Paths.get(file);
+            if (file.toLowerCase().endsWith(".csv")) {
+                Path bars = Paths.get(file.substring(0, file.length() - 4) + ".bars");
+                if (!Files.exists(bars) || Files.getLastModifiedTime(bars).compareTo(Files.getLastModifiedTime(path)) < 0) {
+                    System.out.println("Converting " + path + " -> " + bars + " ...");
+                    BarFile.convertCsv(path, bars);
+                }
+                path = bars;
+            }
+            System.out.print("Fast MA lengths (comma separated, e.g. 5,10,20): ");
+            int[] fasts = parseInts(scanner.nextLine());
+            System.out.print("Slow MA lengths (comma separated, e.g. 30,60,120): ");
+            int[] slows = parseInts(scanner.nextLine());
+
+            List<double[]> grid = new ArrayList<>();
+            for (int f : fasts) for (int sl : slows) if (f < sl) grid.add(new double[] { f, sl, 0.1 });
+            if (grid.isEmpty()) { System.out.println("No valid (fast < slow) combinations."); return; }
+
+            try (BarFile bars = BarFile.open(path)) {
+                System.out.printf("Replaying %d bars for %d tickers across %d parameter sets...\n",
+                        bars.barCount(), bars.tickerCount(), grid.size());
+                BacktestEngine engine = new BacktestEngine(bars, Money.toPaise(100000.00),
+                        Runtime.getRuntime().availableProcessors());
+                long started = System.nanoTime();
+                BacktestResult[] results;
+                try {
+                    results = engine.sweep(grid, MovingAverageCrossStrategy::new);
+                } finally {
+                    engine.shutdown();
+                }
+                Arrays.sort(results, (a, b) -> Double.compare(b.getReturn(), a.getReturn()));
+                System.out.println("\n--- Backtest Results (best first) ---");
+                for (BacktestResult r : results) System.out.println("  " + r);
+                System.out.printf("Sweep finished in %d ms\n", (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (NumberFormatException nfe) {
+            System.out.println("Invalid number entered.");
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Backtest failed: " + e.getMessage());
+        }
+    }
+
+    private void showRisk() {
+        System.out.println("\n--- Value at Risk ---");
+        try {
+            System.out.print("Model [tick/gbm] (blank for tick): ");
+            String model = scanner.nextLine().trim().toLowerCase();
+            System.out.print("Volatility per tick/day (e.g. 0.03): ");
+            double vol = Double.parseDouble(scanner.nextLine().trim());
+            System.out.print("Horizon in ticks/days (blank for 1): ");
+            String h = scanner.nextLine().trim();
+            int horizon = h.isEmpty() ? 1 : Integer.parseInt(h);
+            System.out.print("Paths (blank for 1000000): ");
+            String p = scanner.nextLine().trim();
+            int paths = p.isEmpty() ? 1_000_000 : Integer.parseInt(p);
+
+            RiskReport report;
+            if (model.equals("gbm")) {
+                System.out.print("Pairwise correlation (e.g. 0.3): ");
+                double corr = Double.parseDouble(scanner.nextLine().trim());
+                report = riskEngine.gbmVaR(portfolio, market, vol, corr, 0.0, horizon, paths, 0.99, System.nanoTime());
+            } else {
+                report = riskEngine.marketTickVaR(portfolio, market, vol, horizon, paths, 0.99, System.nanoTime());
+            }
+            System.out.println(report);
+        } catch (NumberFormatException nfe) {
+            System.out.println("Invalid number entered.");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Risk calculation failed: " + iae.getMessage());
+        }
+    }
+
+    private void showMetrics() {
+        TradingMetrics m = TradingMetrics.INSTANCE;
+        System.out.println("\n--- Engine Metrics (" + (m.isEnabled() ? "recording" : "off") + ") ---");
+        for (TradingMetrics.Op op : TradingMetrics.Op.values()) {
+            System.out.printf("%-9s %s\n", op, m.latency(op));
+        }
+        System.out.printf("Ticks: %d (avg %.2f/s since start or reset), prices updated: %d\n",
+                m.getTicks(), m.getAverageTicksPerSecond(), m.getPricesUpdated());
+        System.out.printf("History: %d trades, %d snapshots\n", m.getTradeCount(), m.getSnapshotCount());
+        System.out.printf("Saves: last %d bytes, total %d bytes | Loads: last %d bytes, total %d bytes\n",
+                m.getLastSaveBytes(), m.getTotalSaveBytes(), m.getLastLoadBytes(), m.getTotalLoadBytes());
+        System.out.println("(Also available over JMX as " + TradingMetrics.OBJECT_NAME + ")");
+        System.out.print("Enter 'on', 'off', 'reset' or blank to return: ");
+        switch (scanner.nextLine().trim().toLowerCase()) {
+            case "on": m.setEnabled(true); System.out.println("Metrics recording on."); break;
+            case "off": m.setEnabled(false); System.out.println("Metrics recording off."); break;
+            case "reset": m.reset(); System.out.println("Metrics reset."); break;
+            default: break;
+        }
+    }
+
+    private void toggleGateway() {
+        if (gateway != null) {
+            gateway.close();
+            gateway = null;
+            System.out.println("Order gateway stopped.");
+            return;
+        }
+        System.out.print("Port (blank for " + DEFAULT_GATEWAY_PORT + "): ");
+        String in = scanner.nextLine().trim();
+        try {
+            int port = in.isEmpty() ? DEFAULT_GATEWAY_PORT : Integer.parseInt(in);
+            OrderGateway g = new OrderGateway(market, portfolio, port);
+            System.out.println("Order gateway listening on localhost:" + g.start());
+            gateway = g;
+        } catch (NumberFormatException nfe) {
+            System.out.println("Invalid number entered.");
+        } catch (IOException e) {
+            System.out.println("Failed to start gateway: " + e.getMessage());
+        }
+    }
+
+    private static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(t -> !t.isEmpty())
+                .mapToInt(Integer::parseInt).toArray();
+    }
+
     private void save() {
         try {
-            portfolio.saveToFile(SAVE_FILE);
-            System.out.println("Saved portfolio to " + SAVE_FILE);
+            synchronized (portfolio) { portfolio.saveToFile(saveTarget); }
+            System.out.println("Saved portfolio to " + saveTarget);
         } catch (IOException e) {
             System.out.println("Failed to save: " + e.getMessage());
         }
     }
 
     private void saveOnExit() {
-        try { portfolio.saveToFile(SAVE_FILE); }
+        if (gateway != null) gateway.close();
+        try { synchronized (portfolio) { portfolio.saveToFile(saveTarget); } }
         catch (IOException e) { System.out.println("Warning: failed to save on exit: " + e.getMessage()); }
     }
 }
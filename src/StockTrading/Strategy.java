@@ -0,0 +1,11 @@
+package StockTrading;
+
+/** A trading strategy driven bar by bar. One instance is created per backtest run. */
+interface Strategy {
+    default void onStart(BacktestContext ctx) {}
+
+    /** Called for every bar after the ticker's market price has been set to the bar's close. */
+    void onBar(BacktestContext ctx, Bar bar);
+
+    default void onFinish(BacktestContext ctx) {}
+}
@@ -0,0 +1,39 @@
+package StockTrading;
+
+import java.util.*;
+
+/**
+ * Interns ticker symbols to dense int ids so the trade path can index arrays
+ * instead of hashing and upper-casing strings on every order.
+ * Ids are process-wide; persisted data stores symbols and is remapped on load.
+ */
+final class TickerRegistry {
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static String[] names = new String[16];
+    private static int count;
+
+    private TickerRegistry() {}
+
+    /** Returns the id for the ticker, assigning a new one the first time it is seen. */
+    static synchronized int intern(String ticker) {
+        String key = ticker.toUpperCase();
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        if (count == names.length) names = Arrays.copyOf(names, count * 2);
+        names[count] = key;
+        ids.put(key, count);
+        return count++;
+    }
+
+    /** Returns the id for the ticker, or -1 if it has never been interned. */
+    static synchronized int lookup(String ticker) {
+        Integer id = ids.get(ticker.toUpperCase());
+        return id != null ? id : -1;
+    }
+
+    static synchronized String name(int id) {
+        return (id >= 0 && id < count) ? names[id] : "#" + id;
+    }
+
+    static synchronized int size() { return count; }
+}
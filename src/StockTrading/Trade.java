@@ -0,0 +1,38 @@
+package StockTrading;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/** Read-only view of one executed trade, built from the columnar {@link TradeLog} for display. */
+class Trade implements Serializable {
+    private static final long serialVersionUID = 2L;
+    public enum Type { BUY, SELL }
+
+    private final Type type;
+    private final String ticker;
+    private final int quantity;
+    private final double pricePerShare;
+    private final LocalDateTime timestamp;
+
+    public Trade(Type type, String ticker, int quantity, double pricePerShare, LocalDateTime timestamp) {
+        this.type = type;
+        this.ticker = ticker.toUpperCase();
+        this.quantity = quantity;
+        this.pricePerShare = pricePerShare;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() { return type; }
+    public String getTicker() { return ticker; }
+    public int getQuantity() { return quantity; }
+    public double getPricePerShare() { return pricePerShare; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %s %d × %s @ ₹%.2f",
+                timestamp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                type, quantity, ticker, pricePerShare);
+    }
+}
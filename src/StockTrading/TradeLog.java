@@ -0,0 +1,276 @@
+package StockTrading;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Append-only trade history stored as parallel primitive columns, with a per-ticker
+ * row index and running aggregates that are updated on every append.
+ * <p>
+ * Rows are kept in time order, so time-range queries binary-search the time column
+ * (or one ticker's row list) and paging is just an offset into that range.
+ * Appending only allocates when a column or a ticker's index has to grow.
+ * Only the columns are persisted; indexes and aggregates are rebuilt on load.
+ */
+class TradeLog implements Serializable {
+    private static final long serialVersionUID = 2L;
+    static final byte BUY = 0;
+    static final byte SELL = 1;
+
+    private int size;
+    private byte[] sides;
+    private int[] tickerIds;
+    private int[] quantities;
+    private long[] pricesPaise;
+    private long[] timesNanos;
+
+    // indexed by ticker id
+    private transient TickerAggregate[] aggregates;
+
+    TradeLog(int initialCapacity) {
+        int cap = Math.max(4, initialCapacity);
+        sides = new byte[cap];
+        tickerIds = new int[cap];
+        quantities = new int[cap];
+        pricesPaise = new long[cap];
+        timesNanos = new long[cap];
+        aggregates = new TickerAggregate[16];
+    }
+
+    int size() { return size; }
+    byte side(int row) { return sides[row]; }
+    int tickerId(int row) { return tickerIds[row]; }
+    int quantity(int row) { return quantities[row]; }
+    long pricePaise(int row) { return pricesPaise[row]; }
+    long timeNanos(int row) { return timesNanos[row]; }
+
+    void append(byte side, int tickerId, int qty, long pricePaise, long timeNanos) {
+        if (size == sides.length) grow();
+        // keep the time column sorted even if the wall clock stepped back between sessions
+        if (size > 0 && timeNanos < timesNanos[size - 1]) timeNanos = timesNanos[size - 1];
+        sides[size] = side;
+        tickerIds[size] = tickerId;
+        quantities[size] = qty;
+        pricesPaise[size] = pricePaise;
+        timesNanos[size] = timeNanos;
+        aggregateFor(tickerId).record(size, side, qty, pricePaise);
+        size++;
+    }
+
+    Trade toTrade(int row) {
+        return new Trade(sides[row] == BUY ? Trade.Type.BUY : Trade.Type.SELL,
+                TickerRegistry.name(tickerIds[row]), quantities[row],
+                Money.toRupees(pricesPaise[row]), EpochClock.toLocalDateTime(timesNanos[row]));
+    }
+
+    /* ---------- queries ---------- */
+
+    /** Running aggregates for one ticker, or null if it has never traded. */
+    TickerAggregate aggregate(int tickerId) {
+        return tickerId >= 0 && tickerId < aggregates.length ? aggregates[tickerId] : null;
+    }
+
+    /** Number of trades for the ticker (or all tickers when tickerId &lt; 0) with fromNanos &lt;= time &lt; toNanos. */
+    int count(int tickerId, long fromNanos, long toNanos) {
+        if (tickerId < 0) return lowerBound(toNanos) - lowerBound(fromNanos);
+        TickerAggregate agg = aggregate(tickerId);
+        return agg == null ? 0 : agg.lowerBound(toNanos, timesNanos) - agg.lowerBound(fromNanos, timesNanos);
+    }
+
+    /**
+     * Copies the row numbers of one page of matching trades, oldest first, into {@code out}.
+     * Pages are zero-based and {@code out.length} is the page size.
+     * @return the number of rows written
+     */
+    int query(int tickerId, long fromNanos, long toNanos, int page, int[] out) {
+        long skip = (long) page * out.length;
+        if (tickerId < 0) {
+            int from = lowerBound(fromNanos);
+            int to = lowerBound(toNanos);
+            int start = (int) Math.min(to, from + skip);
+            int n = Math.min(out.length, to - start);
+            for (int i = 0; i < n; i++) out[i] = start + i;
+            return n;
+        }
+        TickerAggregate agg = aggregate(tickerId);
+        if (agg == null) return 0;
+        int from = agg.lowerBound(fromNanos, timesNanos);
+        int to = agg.lowerBound(toNanos, timesNanos);
+        int start = (int) Math.min(to, from + skip);
+        int n = Math.min(out.length, to - start);
+        System.arraycopy(agg.rows, start, out, 0, n);
+        return n;
+    }
+
+    /** First row whose time is &gt;= t. */
+    private int lowerBound(long t) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timesNanos[mid] < t) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /* ---------- maintenance ---------- */
+
+    void remapTickers(int[] remap) {
+        for (int i = 0; i < size; i++) tickerIds[i] = remap[tickerIds[i]];
+        rebuildIndexes();
+    }
+
+    private TickerAggregate aggregateFor(int tickerId) {
+        if (tickerId >= aggregates.length) {
+            aggregates = Arrays.copyOf(aggregates, Math.max(tickerId + 1, aggregates.length * 2));
+        }
+        TickerAggregate agg = aggregates[tickerId];
+        if (agg == null) aggregates[tickerId] = agg = new TickerAggregate();
+        return agg;
+    }
+
+    private void rebuildIndexes() {
+        aggregates = new TickerAggregate[Math.max(16, TickerRegistry.size())];
+        for (int i = 0; i < size; i++) {
+            aggregateFor(tickerIds[i]).record(i, sides[i], quantities[i], pricesPaise[i]);
+        }
+    }
+
+    private void grow() {
+        int cap = sides.length * 2;
+        sides = Arrays.copyOf(sides, cap);
+        tickerIds = Arrays.copyOf(tickerIds, cap);
+        quantities = Arrays.copyOf(quantities, cap);
+        pricesPaise = Arrays.copyOf(pricesPaise, cap);
+        timesNanos = Arrays.copyOf(timesNanos, cap);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // write trimmed copies so the file only holds real rows; the live arrays keep their
+        // capacity, so saving never makes the next trade regrow them
+        int rows = Math.max(4, size);
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("size", size);
+        fields.put("sides", Arrays.copyOf(sides, rows));
+        fields.put("tickerIds", Arrays.copyOf(tickerIds, rows));
+        fields.put("quantities", Arrays.copyOf(quantities, rows));
+        fields.put("pricesPaise", Arrays.copyOf(pricesPaise, rows));
+        fields.put("timesNanos", Arrays.copyOf(timesNanos, rows));
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildIndexes();
+    }
+
+    /**
+     * Row index and running totals for a single ticker.
+     * Realized P&L is tracked both FIFO (against a queue of open buy lots) and at average cost.
+     */
+    static final class TickerAggregate {
+        private int[] rows = new int[8];
+        private int rowCount;
+
+        private int buyCount;
+        private int sellCount;
+        private long boughtQty;
+        private long soldQty;
+        private long buyNotionalPaise;
+        private long sellNotionalPaise;
+
+        // average-cost position
+        private long openQty;
+        private long openCostPaise;
+        private long realizedAvgCostPaise;
+
+        // FIFO lots as a ring buffer of (qty, price)
+        private long[] lotQty = new long[8];
+        private long[] lotPricePaise = new long[8];
+        private int lotHead;
+        private int lotCount;
+        private long realizedFifoPaise;
+
+        void record(int row, byte side, int qty, long pricePaise) {
+            if (rowCount == rows.length) rows = Arrays.copyOf(rows, rowCount * 2);
+            rows[rowCount++] = row;
+            long notional = pricePaise * qty;
+            if (side == BUY) {
+                buyCount++;
+                boughtQty += qty;
+                buyNotionalPaise += notional;
+                openQty += qty;
+                openCostPaise += notional;
+                pushLot(qty, pricePaise);
+            } else {
+                sellCount++;
+                soldQty += qty;
+                sellNotionalPaise += notional;
+                long matched = Math.min(qty, openQty);
+                if (matched > 0) {
+                    long removedCost = (openCostPaise / openQty) * matched + (openCostPaise % openQty) * matched / openQty;
+                    realizedAvgCostPaise += pricePaise * matched - removedCost;
+                    openQty -= matched;
+                    openCostPaise = openQty == 0 ? 0 : openCostPaise - removedCost;
+                }
+                consumeLots(qty, pricePaise);
+            }
+        }
+
+        private void pushLot(long qty, long pricePaise) {
+            if (lotCount == lotQty.length) {
+                long[] q = new long[lotCount * 2];
+                long[] p = new long[lotCount * 2];
+                for (int i = 0; i < lotCount; i++) {
+                    int j = (lotHead + i) % lotQty.length;
+                    q[i] = lotQty[j];
+                    p[i] = lotPricePaise[j];
+                }
+                lotQty = q;
+                lotPricePaise = p;
+                lotHead = 0;
+            }
+            int tail = (lotHead + lotCount) % lotQty.length;
+            lotQty[tail] = qty;
+            lotPricePaise[tail] = pricePaise;
+            lotCount++;
+        }
+
+        private void consumeLots(long qty, long sellPricePaise) {
+            while (qty > 0 && lotCount > 0) {
+                long take = Math.min(qty, lotQty[lotHead]);
+                realizedFifoPaise += (sellPricePaise - lotPricePaise[lotHead]) * take;
+                lotQty[lotHead] -= take;
+                qty -= take;
+                if (lotQty[lotHead] == 0) {
+                    lotHead = (lotHead + 1) % lotQty.length;
+                    lotCount--;
+                }
+            }
+        }
+
+        /** Position in {@link #rows} of the first row whose time is &gt;= t. */
+        int lowerBound(long t, long[] timesNanos) {
+            int lo = 0, hi = rowCount;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timesNanos[rows[mid]] < t) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        int tradeCount() { return rowCount; }
+        int buyCount() { return buyCount; }
+        int sellCount() { return sellCount; }
+        long boughtQty() { return boughtQty; }
+        long soldQty() { return soldQty; }
+        long turnoverPaise() { return buyNotionalPaise + sellNotionalPaise; }
+        long realizedFifoPaise() { return realizedFifoPaise; }
+        long realizedAvgCostPaise() { return realizedAvgCostPaise; }
+
+        /** Volume-weighted average price over all trades, in paise; 0 if nothing traded. */
+        long vwapPaise() {
+            long volume = boughtQty + soldQty;
+            return volume == 0 ? 0 : Math.round((double) turnoverPaise() / volume);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package StockTrading;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+/**
+ * TradeLogCheck
+ * ----------------
+ * Runnable checks for the indexed trade history:
+ *
+ * - count() and paged query() over random ticker/time windows agree with a linear scan.
+ * - Per-ticker aggregates (counts, quantities, turnover, FIFO realized P&L) agree with a replay.
+ * - Timing of count() as the log grows: two binary searches, so a 400x larger log costs a few
+ *   times more per query (mostly cache misses), not 400x.
+ *
+ * Run: java StockTrading.TradeLogCheck [trades]
+ * Exits with status 1 if a check fails.
+ */
+class TradeLogCheck {
+    private static final int TICKERS = 8;
+
+    public static void main(String[] args) {
+        int trades = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        boolean ok = true;
+        SplittableRandom rng = new SplittableRandom(42);
+        int[] ids = new int[TICKERS];
+        for (int t = 0; t < TICKERS; t++) ids[t] = TickerRegistry.intern("CHK" + t);
+
+        TradeLog log = build(trades, ids, rng);
+        long first = log.timeNanos(0), last = log.timeNanos(log.size() - 1);
+        int[] page = new int[50];
+        for (int q = 0; q < 200; q++) {
+            int ticker = q % (TICKERS + 1) == TICKERS ? -1 : ids[q % TICKERS];
+            long from = first + (long) (rng.nextDouble() * (last - first));
+            long to = from + (long) (rng.nextDouble() * (last - from + 1));
+            int expected = 0;
+            int[] rows = new int[log.size()];
+            for (int i = 0; i < log.size(); i++) {
+                long time = log.timeNanos(i);
+                if ((ticker < 0 || log.tickerId(i) == ticker) && time >= from && time < to) rows[expected++] = i;
+            }
+            ok &= check(log.count(ticker, from, to) == expected, "count() differs from a scan");
+            int p = rng.nextInt(Math.max(1, (expected + page.length - 1) / page.length) + 1);
+            int n = log.query(ticker, from, to, p, page);
+            boolean same = n == Math.max(0, Math.min(page.length, expected - p * page.length));
+            for (int i = 0; i < n && same; i++) same = page[i] == rows[p * page.length + i];
+            ok &= check(same, "query() page differs from a scan");
+        }
+        System.out.printf("Queries: 200 random windows over %,d trades checked against a scan%n", log.size());
+
+        for (int id : ids) ok &= checkAggregate(log, id);
+        System.out.printf("Aggregates: %d tickers checked against a replay%n", TICKERS);
+
+        for (int size : new int[] { 10_000, 100_000, 1_000_000, 4_000_000 }) {
+            TradeLog big = build(size, ids, rng);
+            long lo = big.timeNanos(0), span = big.timeNanos(big.size() - 1) - lo;
+            int queries = 1_000_000;
+            long sink = 0;
+            long started = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                long from = lo + (long) (rng.nextDouble() * span);
+                sink += big.count(ids[q % TICKERS], from, from + span / 10);
+            }
+            System.out.printf("count() on %,9d trades: %6.0f ns/query (%d)%n",
+                    size, (System.nanoTime() - started) / (double) queries, sink & 1);
+        }
+
+        System.out.println(ok ? "All trade log checks passed." : "Trade log checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    /** Random buys and sells one to three milliseconds apart; sells never exceed the open quantity. */
+    private static TradeLog build(int trades, int[] ids, SplittableRandom rng) {
+        TradeLog log = new TradeLog(trades);
+        long[] open = new long[ids.length];
+        long time = 1_700_000_000_000_000_000L;
+        for (int i = 0; i < trades; i++) {
+            int t = rng.nextInt(ids.length);
+            int qty = 1 + rng.nextInt(100);
+            long price = 10_000 + rng.nextInt(100_000);
+            time += 1_000_000 + rng.nextInt(2_000_000);
+            if (open[t] >= qty && rng.nextBoolean()) {
+                log.append(TradeLog.SELL, ids[t], qty, price, time);
+                open[t] -= qty;
+            } else {
+                log.append(TradeLog.BUY, ids[t], qty, price, time);
+                open[t] += qty;
+            }
+        }
+        return log;
+    }
+
+    private static boolean checkAggregate(TradeLog log, int id) {
+        int buys = 0, sells = 0;
+        long bought = 0, sold = 0, turnover = 0, fifo = 0;
+        ArrayDeque<long[]> lots = new ArrayDeque<>();
+        for (int i = 0; i < log.size(); i++) {
+            if (log.tickerId(i) != id) continue;
+            long qty = log.quantity(i), price = log.pricePaise(i);
+            turnover += qty * price;
+            if (log.side(i) == TradeLog.BUY) {
+                buys++;
+                bought += qty;
+                lots.addLast(new long[] { qty, price });
+            } else {
+                sells++;
+                sold += qty;
+                while (qty > 0) {
+                    long[] lot = lots.peekFirst();
+                    long matched = Math.min(qty, lot[0]);
+                    fifo += (price - lot[1]) * matched;
+                    qty -= matched;
+                    if ((lot[0] -= matched) == 0) lots.removeFirst();
+                }
+            }
+        }
+        TradeLog.TickerAggregate agg = log.aggregate(id);
+        return check(agg != null && agg.buyCount() == buys && agg.sellCount() == sells
+                && agg.boughtQty() == bought && agg.soldQty() == sold && agg.turnoverPaise() == turnover,
+                "totals differ for " + TickerRegistry.name(id))
+                & check(agg != null && agg.realizedFifoPaise() == fifo, "FIFO P&L differs for " + TickerRegistry.name(id));
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
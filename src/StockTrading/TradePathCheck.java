@@ -0,0 +1,105 @@
+package StockTrading;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * TradePathCheck
+ * ----------------
+ * Runnable checks for the trade path:
+ *
+ * - Allocation: bytes allocated per buy/sell on a portfolio presized for the run, measured with
+ *   the thread allocation counter. The per-ticker row index and FIFO lot queues still grow by
+ *   doubling, so the bound is a few tens of bytes rather than zero.
+ * - Round trip: a saved and reloaded portfolio has the same cash, positions, trades and snapshots.
+ *
+ * Run: java StockTrading.TradePathCheck [trades]
+ * Exits with status 1 if a check fails.
+ */
+class TradePathCheck {
+    private static final double MAX_BYTES_PER_TRADE = 64;
+
+    public static void main(String[] args) throws Exception {
+        int trades = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        boolean ok = true;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.isThreadAllocatedMemorySupported()) {
+            for (int round = 0; round < 3; round++) bytesPerTrade(threads, trades); // warm up the JIT
+            double perTrade = bytesPerTrade(threads, trades);
+            System.out.printf("Allocation: %.1f bytes per trade over %,d trades%n", perTrade, trades);
+            ok &= check(perTrade <= MAX_BYTES_PER_TRADE, "more than " + MAX_BYTES_PER_TRADE + " bytes per trade");
+        } else {
+            System.out.println("Allocation: not measurable on this JVM, skipped");
+        }
+
+        Market market = new Market();
+        Portfolio saved = Portfolio.withCashPaise(Money.toPaise(1e9), 1024);
+        trade(saved, market, 5_000);
+        File file = File.createTempFile("portfolio", ".dat");
+        try {
+            saved.saveToFile(file.getPath());
+            Portfolio loaded = Portfolio.loadFromFile(file.getPath());
+            ok &= check(loaded.getCashPaise() == saved.getCashPaise(), "cash differs after reload");
+            for (Stock s : market.allStocks()) {
+                int id = s.getId();
+                ok &= check(loaded.quantityOf(id) == saved.quantityOf(id)
+                        && loaded.costBasisPaise(id) == saved.costBasisPaise(id), "position differs for " + s.getTicker());
+            }
+            ok &= check(sameTrades(saved.getTradeLog(), loaded.getTradeLog()), "trade log differs after reload");
+            ok &= check(sameSnapshots(saved.getSnapshots(), loaded.getSnapshots()), "snapshots differ after reload");
+            System.out.printf("Round trip: %,d trades, %,d snapshots, %,d bytes on disk%n",
+                    loaded.getTradeLog().size(), loaded.getSnapshots().size(), file.length());
+        } finally {
+            file.delete();
+        }
+
+        System.out.println(ok ? "All trade path checks passed." : "Trade path checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    private static double bytesPerTrade(com.sun.management.ThreadMXBean threads, int trades) {
+        Market market = new Market();
+        Portfolio portfolio = Portfolio.withCashPaise(Long.MAX_VALUE / 4, trades);
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        trade(portfolio, market, trades);
+        return (threads.getThreadAllocatedBytes(thread) - before) / (double) trades;
+    }
+
+    /** Buys three and sells one share in turn across every listed ticker. */
+    private static void trade(Portfolio portfolio, Market market, int trades) {
+        int[] ids = market.allStocks().stream().mapToInt(Stock::getId).toArray();
+        for (int i = 0; i < trades; i++) {
+            int id = ids[(i >> 1) % ids.length];
+            if ((i & 1) == 0) portfolio.buy(market, id, 3);
+            else portfolio.sell(market, id, 1);
+        }
+    }
+
+    private static boolean sameTrades(TradeLog a, TradeLog b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.side(i) != b.side(i) || a.tickerId(i) != b.tickerId(i) || a.quantity(i) != b.quantity(i)
+                    || a.pricePaise(i) != b.pricePaise(i) || a.timeNanos(i) != b.timeNanos(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameSnapshots(List<PortfolioSnapshot> a, List<PortfolioSnapshot> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            PortfolioSnapshot x = a.get(i), y = b.get(i);
+            if (!x.getTime().equals(y.getTime()) || x.getCash() != y.getCash()
+                    || !x.getHoldings().toString().equals(y.getHoldings().toString())) return false;
+        }
+        return true;
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
@@ -0,0 +1,207 @@
+package StockTrading;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TradingMetrics
+ * ----------------
+ * Process-wide instrumentation for the trading engine: latency histograms per operation,
+ * tick throughput, history sizes and persistence volume.
+ *
+ * - Recording is lock-free (atomic arrays and adders) and safe from any thread.
+ * - When disabled, {@link #start()} returns 0 without reading the clock and
+ *   {@link #record} returns immediately, so instrumented code pays almost nothing.
+ * - Portfolio operations are recorded only for the portfolio that called
+ *   {@link Portfolio#enableMetrics()} (the console's), so backtest and load-test portfolios
+ *   never mix into the trade histograms or history gauges.
+ * - Exposed through JMX ({@link TradingMetricsMXBean}) and the console 'metrics' command.
+ *
+ * Usage: {@code long t = TradingMetrics.start(); ...; TradingMetrics.record(TradingMetrics.Op.BUY, t);}
+ */
+final class TradingMetrics implements TradingMetricsMXBean {
+    // snapshots are appended inside buy/sell and timed as part of them
+    enum Op { BUY, SELL, TICK, SAVE, LOAD }
+
+    static final TradingMetrics INSTANCE = new TradingMetrics();
+    static final String OBJECT_NAME = "StockTrading:type=TradingMetrics";
+
+    private static volatile boolean enabled = true;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder pricesUpdated = new LongAdder();
+    private volatile long windowStartNanos = System.nanoTime();
+    private volatile long tradeCount;
+    private volatile long snapshotCount;
+    private volatile long lastSaveBytes;
+    private volatile long lastLoadBytes;
+    private final LongAdder totalSaveBytes = new LongAdder();
+    private final LongAdder totalLoadBytes = new LongAdder();
+
+    private TradingMetrics() {
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new LatencyHistogram();
+    }
+
+    /* ---------- recording ---------- */
+
+    /** Start timestamp for an operation, or 0 when recording is off. */
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    static void record(Op op, long startNanos) {
+        if (startNanos == 0 || !enabled) return;
+        INSTANCE.latencies[op.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    static void recordTick(long startNanos, int stocks) {
+        if (startNanos == 0 || !enabled) return;
+        INSTANCE.ticks.increment();
+        INSTANCE.pricesUpdated.add(stocks);
+        record(Op.TICK, startNanos);
+    }
+
+    /** Latest trade-log and snapshot-log sizes, as gauges. */
+    static void observeHistory(int trades, int snapshots) {
+        if (!enabled) return;
+        INSTANCE.tradeCount = trades;
+        INSTANCE.snapshotCount = snapshots;
+    }
+
+    static void recordSave(long startNanos, long bytes) {
+        if (startNanos == 0 || !enabled) return;
+        INSTANCE.lastSaveBytes = bytes;
+        INSTANCE.totalSaveBytes.add(bytes);
+        record(Op.SAVE, startNanos);
+    }
+
+    static void recordLoad(long startNanos, long bytes) {
+        if (startNanos == 0 || !enabled) return;
+        INSTANCE.lastLoadBytes = bytes;
+        INSTANCE.totalLoadBytes.add(bytes);
+        record(Op.LOAD, startNanos);
+    }
+
+    /** Registers the MXBean with the platform MBean server; safe to call more than once. */
+    static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(INSTANCE, name);
+        } catch (JMException e) {
+            System.out.println("Warning: could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /* ---------- MXBean ---------- */
+
+    @Override public boolean isEnabled() { return enabled; }
+    @Override public void setEnabled(boolean on) { enabled = on; }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram h : latencies) h.reset();
+        ticks.reset();
+        pricesUpdated.reset();
+        totalSaveBytes.reset();
+        totalLoadBytes.reset();
+        lastSaveBytes = 0;
+        lastLoadBytes = 0;
+        windowStartNanos = System.nanoTime();
+    }
+
+    LatencySummary latency(Op op) { return latencies[op.ordinal()].summary(); }
+
+    @Override public LatencySummary getBuyLatency() { return latency(Op.BUY); }
+    @Override public LatencySummary getSellLatency() { return latency(Op.SELL); }
+    @Override public LatencySummary getTickLatency() { return latency(Op.TICK); }
+    @Override public LatencySummary getSaveLatency() { return latency(Op.SAVE); }
+    @Override public LatencySummary getLoadLatency() { return latency(Op.LOAD); }
+
+    @Override public long getTicks() { return ticks.sum(); }
+    @Override public long getPricesUpdated() { return pricesUpdated.sum(); }
+
+    /** Mean tick rate since startup or the last reset, idle stretches included. */
+    @Override
+    public double getAverageTicksPerSecond() {
+        double seconds = (System.nanoTime() - windowStartNanos) / 1e9;
+        return seconds > 0 ? ticks.sum() / seconds : 0;
+    }
+
+    @Override public long getTradeCount() { return tradeCount; }
+    @Override public long getSnapshotCount() { return snapshotCount; }
+    @Override public long getLastSaveBytes() { return lastSaveBytes; }
+    @Override public long getTotalSaveBytes() { return totalSaveBytes.sum(); }
+    @Override public long getLastLoadBytes() { return lastLoadBytes; }
+    @Override public long getTotalLoadBytes() { return totalLoadBytes.sum(); }
+
+    /**
+     * Log-linear histogram of nanosecond durations: 8 sub-buckets per power of two,
+     * so any reported percentile is within 12.5% of the true value.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            counts.incrementAndGet(index(nanos));
+            total.add(nanos);
+            long m = max.get();
+            while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+            total.reset();
+            max.set(0);
+        }
+
+        static int index(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        /** Largest value that falls into the bucket. */
+        static long upperBound(int idx) {
+            if (idx < SUB - 1) return idx;
+            int next = idx + 1;
+            if (next >= BUCKETS) return Long.MAX_VALUE;
+            int exp = next / SUB + SUB_BITS - 1;
+            long lower = (long) (SUB + next % SUB) << (exp - SUB_BITS);
+            return lower - 1;
+        }
+
+        LatencySummary summary() {
+            long[] snapshot = new long[BUCKETS];
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts.get(i);
+            if (n == 0) return new LatencySummary(0, 0, 0, 0, 0, 0);
+            long mx = max.get();
+            return new LatencySummary(n, total.sum() / (double) n / 1000.0,
+                    percentile(snapshot, n, 0.50, mx), percentile(snapshot, n, 0.90, mx),
+                    percentile(snapshot, n, 0.99, mx), mx / 1000.0);
+        }
+
+        private static double percentile(long[] counts, long n, double p, long max) {
+            long rank = (long) Math.ceil(p * n);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), max) / 1000.0;
+            }
+            return max / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package StockTrading;
+
+/**
+ * JMX view of {@link TradingMetrics}, registered as {@code StockTrading:type=TradingMetrics}.
+ * Latencies are reported in microseconds.
+ */
+public interface TradingMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean enabled);
+    void reset();
+
+    LatencySummary getBuyLatency();
+    LatencySummary getSellLatency();
+    LatencySummary getTickLatency();
+    LatencySummary getSaveLatency();
+    LatencySummary getLoadLatency();
+
+    long getTicks();
+    long getPricesUpdated();
+    double getAverageTicksPerSecond();
+
+    long getTradeCount();
+    long getSnapshotCount();
+
+    long getLastSaveBytes();
+    long getTotalSaveBytes();
+    long getLastLoadBytes();
+    long getTotalLoadBytes();
+
+    /** Point-in-time percentiles for one operation. */
+    final class LatencySummary {
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p90Micros;
+        private final double p99Micros;
+        private final double maxMicros;
+
+        public LatencySummary(long count, double meanMicros, double p50Micros, double p90Micros,
+                              double p99Micros, double maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() { return count; }
+        public double getMeanMicros() { return meanMicros; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP90Micros() { return p90Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getMaxMicros() { return maxMicros; }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1fµs p50=%.1fµs p90=%.1fµs p99=%.1fµs max=%.1fµs",
+                    count, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+}
@@ -1,4 +1,204 @@
 package StudentTracker;
 
-public class ChartPanel {
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Swing component that charts a {@link DefaultCategoryDataset}: one series per row, one x
+ * position per column.
+ *
+ * - Few columns are drawn as grouped bars.
+ * - Otherwise each series is a line, downsampled to the plot width first: every pixel column
+ *   keeps the first, minimum, maximum and last value of the columns that land on it, so peaks
+ *   survive and painting costs O(pixels) however many columns there are.
+ * - The downsampled envelope is cached until the dataset changes or the plot is resized.
+ */
+@SuppressWarnings("serial") // Swing component, never serialized
+public class ChartPanel extends JPanel {
+    private static final Color[] PALETTE = {
+            new Color(0x1f77b4), new Color(0xff7f0e), new Color(0x2ca02c), new Color(0xd62728),
+            new Color(0x9467bd), new Color(0x8c564b), new Color(0xe377c2), new Color(0x7f7f7f)};
+    private static final int LEFT = 56, RIGHT = 16, TOP = 36, BOTTOM = 40;
+    /** Bars are used only while each one gets at least this many pixels. */
+    private static final int MIN_BAR_WIDTH = 3;
+
+    private String title;
+    private DefaultCategoryDataset dataset;
+
+    // cached envelope: [row][pixel], NaN where no column falls on the pixel
+    private float[][] first, min, max, last;
+    private double yMin, yMax;
+    private int cachedVersion = -1, cachedWidth = -1;
+    private DefaultCategoryDataset cachedDataset;
+
+    public ChartPanel(String title, DefaultCategoryDataset dataset) {
+        this.title = title;
+        this.dataset = dataset;
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(760, 360));
+    }
+
+    public void setDataset(DefaultCategoryDataset dataset) {
+        this.dataset = dataset;
+        repaint();
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        repaint();
+    }
+
+    public DefaultCategoryDataset getDataset() { return dataset; }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int plotW = getWidth() - LEFT - RIGHT;
+            int plotH = getHeight() - TOP - BOTTOM;
+            if (title != null) g2.drawString(title, LEFT, 20);
+            if (dataset == null || dataset.getColumnCount() == 0 || plotW <= 0 || plotH <= 0) return;
+
+            int rows = dataset.getRowCount();
+            int columns = dataset.getColumnCount();
+            ensureEnvelope(plotW);
+            drawAxes(g2, plotW, plotH, columns);
+            if ((long) columns * rows * MIN_BAR_WIDTH <= plotW) drawBars(g2, plotW, plotH, rows, columns);
+            else drawLines(g2, plotW, plotH, rows);
+            drawLegend(g2, rows);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /** Single pass over the dataset collapsing columns onto pixel columns. */
+    private void ensureEnvelope(int plotW) {
+        if (cachedDataset == dataset && cachedVersion == dataset.getVersion() && cachedWidth == plotW) return;
+        int rows = dataset.getRowCount();
+        int columns = dataset.getColumnCount();
+        first = new float[rows][plotW];
+        min = new float[rows][plotW];
+        max = new float[rows][plotW];
+        last = new float[rows][plotW];
+        double lo = 0, hi = 0;
+        for (int r = 0; r < rows; r++) {
+            float[] f = first[r], mn = min[r], mx = max[r], l = last[r];
+            java.util.Arrays.fill(f, Float.NaN);
+            for (int c = 0; c < columns; c++) {
+                double v = dataset.getValue(r, c);
+                if (Double.isNaN(v)) continue;
+                int x = (int) ((long) c * plotW / columns);
+                float fv = (float) v;
+                if (Float.isNaN(f[x])) {
+                    f[x] = mn[x] = mx[x] = fv;
+                } else {
+                    if (fv < mn[x]) mn[x] = fv;
+                    if (fv > mx[x]) mx[x] = fv;
+                }
+                l[x] = fv;
+                if (v < lo) lo = v;
+                if (v > hi) hi = v;
+            }
+        }
+        yMin = lo;
+        yMax = hi > lo ? niceCeiling(hi) : lo + 1;
+        cachedDataset = dataset;
+        cachedVersion = dataset.getVersion();
+        cachedWidth = plotW;
+    }
+
+    private void drawBars(Graphics2D g2, int plotW, int plotH, int rows, int columns) {
+        double slot = plotW / (double) columns;
+        double barW = Math.max(1, (slot - 2) / rows);
+        for (int c = 0; c < columns; c++) {
+            int x0 = LEFT + (int) (c * slot) + 1;
+            for (int r = 0; r < rows; r++) {
+                double v = dataset.getValue(r, c);
+                if (Double.isNaN(v)) continue;
+                int y = y(v, plotH);
+                int base = y(Math.max(0, yMin), plotH);
+                g2.setColor(PALETTE[r % PALETTE.length]);
+                g2.fillRect(x0 + (int) (r * barW), Math.min(y, base), Math.max(1, (int) barW), Math.abs(base - y));
+            }
+        }
+    }
+
+    private void drawLines(Graphics2D g2, int plotW, int plotH, int rows) {
+        g2.setStroke(new BasicStroke(1.2f));
+        for (int r = 0; r < rows; r++) {
+            g2.setColor(PALETTE[r % PALETTE.length]);
+            float[] f = first[r], mn = min[r], mx = max[r], l = last[r];
+            int prevX = -1, prevY = 0;
+            for (int px = 0; px < plotW; px++) {
+                if (Float.isNaN(f[px])) continue;
+                int x = LEFT + px;
+                if (prevX >= 0) g2.drawLine(prevX, prevY, x, y(f[px], plotH));
+                if (mn[px] != mx[px]) g2.drawLine(x, y(mn[px], plotH), x, y(mx[px], plotH));
+                prevX = x;
+                prevY = y(l[px], plotH);
+            }
+        }
+    }
+
+    private void drawAxes(Graphics2D g2, int plotW, int plotH, int columns) {
+        FontMetrics fm = g2.getFontMetrics();
+        int bottom = TOP + plotH;
+        for (int i = 0; i <= 5; i++) {
+            double v = yMin + (yMax - yMin) * i / 5;
+            int y = y(v, plotH);
+            g2.setColor(new Color(0xeeeeee));
+            g2.drawLine(LEFT, y, LEFT + plotW, y);
+            g2.setColor(Color.DARK_GRAY);
+            String label = formatTick(v);
+            g2.drawString(label, LEFT - 6 - fm.stringWidth(label), y + fm.getAscent() / 2 - 1);
+        }
+        g2.setColor(Color.GRAY);
+        g2.drawLine(LEFT, TOP, LEFT, bottom);
+        g2.drawLine(LEFT, bottom, LEFT + plotW, bottom);
+
+        // label a handful of columns, spaced so the text never overlaps
+        int labels = Math.max(1, Math.min(columns, plotW / 60));
+        g2.setColor(Color.DARK_GRAY);
+        for (int i = 0; i < labels; i++) {
+            int c = labels == 1 ? 0 : (int) ((long) i * (columns - 1) / (labels - 1));
+            String label = String.valueOf(dataset.getColumnKey(c));
+            int x = LEFT + (int) ((c + 0.5) * plotW / columns);
+            g2.drawLine(x, bottom, x, bottom + 3);
+            g2.drawString(label, x - fm.stringWidth(label) / 2, bottom + 4 + fm.getAscent());
+        }
+    }
+
+    private void drawLegend(Graphics2D g2, int rows) {
+        FontMetrics fm = g2.getFontMetrics();
+        int x = getWidth() - RIGHT;
+        for (int r = rows - 1; r >= 0; r--) {
+            String label = String.valueOf(dataset.getRowKey(r));
+            x -= fm.stringWidth(label) + 22;
+            g2.setColor(PALETTE[r % PALETTE.length]);
+            g2.fillRect(x, 12, 10, 10);
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(label, x + 14, 21);
+        }
+    }
+
+    private int y(double v, int plotH) {
+        return TOP + plotH - (int) Math.round((v - yMin) / (yMax - yMin) * plotH);
+    }
+
+    /** Rounds up to 1, 2 or 5 times a power of ten so the axis ticks land on round numbers. */
+    private static double niceCeiling(double v) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(v)));
+        for (double step : new double[]{1, 2, 5, 10}) {
+            if (step * magnitude >= v) return step * magnitude;
+        }
+        return 10 * magnitude;
+    }
+
+    private static String formatTick(double v) {
+        if (Math.abs(v) >= 1_000_000) return String.format("%.1fM", v / 1_000_000);
+        if (Math.abs(v) >= 10_000) return String.format("%.0fk", v / 1_000);
+        return v == Math.rint(v) ? String.valueOf((long) v) : String.format("%.1f", v);
+    }
 }
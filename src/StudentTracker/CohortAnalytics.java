@@ -0,0 +1,287 @@
+package StudentTracker;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * CohortAnalytics
+ * ----------------
+ * Distribution of student averages across the whole cohort: overall and per {@link GradeCategory}.
+ *
+ * - Averages are bucketed to {@link #RESOLUTION} points on [0, 100]; every bucket count lives in a
+ *   Fenwick tree, which doubles as an order-statistic structure: rank, percentile and histogram
+ *   queries are O(log buckets) each, independent of the number of students.
+ * - {@link #rebuild} recomputes everything with one parallel pass over the student list: fork-join
+ *   leaves bucket their slice into primitive count arrays that are summed on the way back up.
+ * - {@link #update} re-indexes one student after grades change, in O(log buckets).
+ *
+ * An instance is used by one thread at a time: the GUI builds it on a worker, with rebuild
+ * fanning out to the pool and returning once every student is indexed, then hands it to the EDT.
+ */
+class CohortAnalytics {
+    static final double RESOLUTION = 0.01;
+    static final int BUCKETS = (int) Math.round(100 / RESOLUTION) + 1;
+    /** Dimension 0 is the overall average, 1 + ordinal the per-category averages. */
+    static final int DIMENSIONS = 1 + GradeCategory.values().length;
+    /** Students per leaf task; keeps the per-leaf count arrays few enough to merge cheaply. */
+    private static final int STUDENTS_PER_TASK = 65_536;
+
+    private final ForkJoinPool pool;
+    private final ScoreIndex[] indexes = new ScoreIndex[DIMENSIONS];
+
+    public CohortAnalytics(ForkJoinPool pool) {
+        this.pool = pool;
+        for (int d = 0; d < DIMENSIONS; d++) indexes[d] = new ScoreIndex();
+    }
+
+    public CohortAnalytics() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /* ---------- maintenance ---------- */
+
+    /** Discards the current state and indexes every student in parallel. */
+    public void rebuild(List<Student> students) {
+        long[][] counts = students.isEmpty() ? new long[DIMENSIONS][BUCKETS]
+                : pool.invoke(new BucketTask(students, 0, students.size()));
+        for (int d = 0; d < DIMENSIONS; d++) indexes[d].load(counts[d]);
+    }
+
+    /** Independent copy, so a batch of updates can be applied elsewhere while this one stays in use. */
+    public CohortAnalytics copy() {
+        CohortAnalytics c = new CohortAnalytics(pool);
+        for (int d = 0; d < DIMENSIONS; d++) c.indexes[d].copyFrom(indexes[d]);
+        return c;
+    }
+
+    /** Re-indexes a student whose grades changed, or indexes a new one. */
+    public void update(Student s) {
+        int[] keys = s.cohortKeys;
+        if (keys == null) keys = s.cohortKeys = emptyKeys();
+        for (int d = 0; d < DIMENSIONS; d++) {
+            int key = keyOf(s, d);
+            if (key == keys[d]) continue;
+            if (keys[d] >= 0) indexes[d].add(keys[d], -1);
+            if (key >= 0) indexes[d].add(key, 1);
+            keys[d] = key;
+        }
+    }
+
+    /* ---------- queries; category null means the overall average ---------- */
+
+    /** Students with at least one grade in the dimension. */
+    public int size(GradeCategory category) {
+        return (int) indexes[dimension(category)].total();
+    }
+
+    /** Competition rank, 1 for the best average; 0 if the student has no grade in the dimension. */
+    public int rank(Student s, GradeCategory category) {
+        int d = dimension(category);
+        int key = s.cohortKeys == null ? -1 : s.cohortKeys[d];
+        if (key < 0) return 0;
+        ScoreIndex index = indexes[d];
+        return (int) (index.total() - index.countAtMost(key)) + 1;
+    }
+
+    /** Share of the ranked students whose average is strictly below this student's, in [0, 1]. */
+    public double percentileOf(Student s, GradeCategory category) {
+        int d = dimension(category);
+        int key = s.cohortKeys == null ? -1 : s.cohortKeys[d];
+        ScoreIndex index = indexes[d];
+        if (key < 0 || index.total() == 0) return Double.NaN;
+        return key == 0 ? 0 : index.countAtMost(key - 1) / (double) index.total();
+    }
+
+    /** Nearest-rank percentile of the averages, p in [0, 1]; NaN when nobody is ranked. */
+    public double percentile(GradeCategory category, double p) {
+        ScoreIndex index = indexes[dimension(category)];
+        long n = index.total();
+        if (n == 0) return Double.NaN;
+        long rank = Math.max(1, Math.min(n, (long) Math.ceil(p * n)));
+        return index.select(rank) * RESOLUTION;
+    }
+
+    /**
+     * Mean of the bucketed averages, so like every other query here it is approximate: each
+     * average is rounded to the nearest bucket first, putting the result within
+     * {@link #RESOLUTION}/2 of the exact mean.
+     */
+    public double mean(GradeCategory category) {
+        ScoreIndex index = indexes[dimension(category)];
+        return index.total() == 0 ? Double.NaN : index.keySum() * RESOLUTION / index.total();
+    }
+
+    /** Student counts per bin of {@code binWidth} points; the last bin also holds 100. */
+    public long[] histogram(GradeCategory category, double binWidth) {
+        if (binWidth < RESOLUTION) throw new IllegalArgumentException("Bin width must be at least " + RESOLUTION);
+        ScoreIndex index = indexes[dimension(category)];
+        int bins = (int) Math.ceil(100 / binWidth - 1e-9);
+        long[] counts = new long[bins];
+        long below = 0;
+        for (int b = 0; b < bins; b++) {
+            int lastKey = b == bins - 1 ? BUCKETS - 1 : (int) Math.round((b + 1) * binWidth / RESOLUTION) - 1;
+            long atMost = index.countAtMost(lastKey);
+            counts[b] = atMost - below;
+            below = atMost;
+        }
+        return counts;
+    }
+
+    /** Histograms of every dimension as chart series, one column per bin labelled by its lower bound. */
+    public DefaultCategoryDataset histogramDataset(double binWidth) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        int bins = (int) Math.ceil(100 / binWidth - 1e-9);
+        String[] columns = new String[bins];
+        for (int b = 0; b < bins; b++) columns[b] = formatScore(b * binWidth);
+        dataset.setRow("Overall", columns, toDoubles(histogram(null, binWidth)));
+        for (GradeCategory c : GradeCategory.values()) {
+            dataset.setRow(c.name(), columns, toDoubles(histogram(c, binWidth)));
+        }
+        return dataset;
+    }
+
+    public String summary(GradeCategory category) {
+        int n = size(category);
+        String label = category == null ? "Overall" : category.name();
+        if (n == 0) return String.format("%-10s  no grades", label);
+        return String.format("%-10s  n=%-8d mean=%6.2f  min=%6.2f  p25=%6.2f  median=%6.2f  p75=%6.2f  p90=%6.2f  max=%6.2f",
+                label, n, mean(category), percentile(category, 0), percentile(category, 0.25),
+                percentile(category, 0.5), percentile(category, 0.75), percentile(category, 0.9),
+                percentile(category, 1));
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static int dimension(GradeCategory category) {
+        return category == null ? 0 : 1 + category.ordinal();
+    }
+
+    /** Bucket of the student's average in a dimension, or -1 without grades there. */
+    static int keyOf(Student s, int d) {
+        double avg;
+        if (d == 0) {
+            if (s.getGradeCount() == 0) return -1;
+            avg = s.getAverageGrade();
+        } else {
+            GradeCategory c = GradeCategory.values()[d - 1];
+            if (s.getGradeCount(c) == 0) return -1;
+            avg = s.getAverageGrade(c);
+        }
+        return (int) Math.round(Math.max(0, Math.min(100, avg)) / RESOLUTION);
+    }
+
+    private static int[] emptyKeys() {
+        int[] keys = new int[DIMENSIONS];
+        java.util.Arrays.fill(keys, -1);
+        return keys;
+    }
+
+    private static double[] toDoubles(long[] values) {
+        double[] out = new double[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = values[i];
+        return out;
+    }
+
+    private static String formatScore(double score) {
+        return score == Math.rint(score) ? Integer.toString((int) score) : String.format("%.2f", score);
+    }
+
+    /** Buckets a slice of students, recording each student's keys; returns counts[dimension][bucket]. */
+    @SuppressWarnings("serial") // fork-join task, never serialized
+    private static final class BucketTask extends RecursiveTask<long[][]> {
+        private final List<Student> students;
+        private final int from, to;
+
+        BucketTask(List<Student> students, int from, int to) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= STUDENTS_PER_TASK) {
+                long[][] counts = new long[DIMENSIONS][BUCKETS];
+                for (int i = from; i < to; i++) {
+                    Student s = students.get(i);
+                    int[] keys = s.cohortKeys;
+                    if (keys == null) keys = s.cohortKeys = new int[DIMENSIONS];
+                    for (int d = 0; d < DIMENSIONS; d++) {
+                        int key = keyOf(s, d);
+                        keys[d] = key;
+                        if (key >= 0) counts[d][key]++;
+                    }
+                }
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            BucketTask left = new BucketTask(students, from, mid);
+            left.fork();
+            long[][] right = new BucketTask(students, mid, to).compute();
+            long[][] merged = left.join();
+            for (int d = 0; d < DIMENSIONS; d++) {
+                long[] m = merged[d], r = right[d];
+                for (int k = 0; k < BUCKETS; k++) m[k] += r[k];
+            }
+            return merged;
+        }
+    }
+
+    /** Fenwick tree over bucket counts: point update, prefix count and k-th smallest in O(log n). */
+    static final class ScoreIndex {
+        private final long[] tree = new long[BUCKETS + 1];
+        private final int topBit = Integer.highestOneBit(BUCKETS);
+        private long total;
+        private long keySum;
+
+        void add(int key, int delta) {
+            total += delta;
+            keySum += (long) key * delta;
+            for (int i = key + 1; i <= BUCKETS; i += i & -i) tree[i] += delta;
+        }
+
+        /** Replaces the contents with plain per-bucket counts, building the tree in O(n). */
+        void load(long[] counts) {
+            total = 0;
+            keySum = 0;
+            for (int k = 0; k < BUCKETS; k++) {
+                tree[k + 1] = counts[k];
+                total += counts[k];
+                keySum += k * counts[k];
+            }
+            for (int i = 1; i <= BUCKETS; i++) {
+                int parent = i + (i & -i);
+                if (parent <= BUCKETS) tree[parent] += tree[i];
+            }
+        }
+
+        void copyFrom(ScoreIndex other) {
+            System.arraycopy(other.tree, 0, tree, 0, tree.length);
+            total = other.total;
+            keySum = other.keySum;
+        }
+
+        long total() { return total; }
+        long keySum() { return keySum; }
+
+        long countAtMost(int key) {
+            long sum = 0;
+            for (int i = Math.min(key, BUCKETS - 1) + 1; i > 0; i -= i & -i) sum += tree[i];
+            return sum;
+        }
+
+        /** Smallest key whose cumulative count reaches rank (1-based). */
+        int select(long rank) {
+            int pos = 0;
+            for (int step = topBit; step > 0; step >>= 1) {
+                int next = pos + step;
+                if (next <= BUCKETS && tree[next] < rank) {
+                    pos = next;
+                    rank -= tree[next];
+                }
+            }
+            return pos; // tree position pos + 1 holds the answer, i.e. key pos
+        }
+    }
+}
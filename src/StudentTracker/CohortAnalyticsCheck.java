@@ -0,0 +1,129 @@
+package StudentTracker;
+
+import java.util.*;
+
+/**
+ * CohortAnalyticsCheck
+ * ----------------
+ * Runnable checks for {@link CohortAnalytics}:
+ *
+ * - size, rank, percentileOf and percentile agree with a sorted copy of the bucketed averages,
+ *   after a rebuild and again after grades change and students are re-indexed with update.
+ * - Timing of rank and percentile as the cohort grows: both walk a Fenwick tree over a fixed
+ *   number of buckets, so the cost per query should not grow with the number of students.
+ *
+ * Run: java StudentTracker.CohortAnalyticsCheck [students]
+ * Exits with status 1 if a check fails.
+ */
+class CohortAnalyticsCheck {
+    private static final GradeCategory[] CATEGORIES = GradeCategory.values();
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        boolean ok = true;
+        Random rng = new Random(5);
+
+        List<Student> cohort = cohort(students, rng);
+        CohortAnalytics analytics = new CohortAnalytics();
+        analytics.rebuild(cohort);
+        ok &= checkAll(analytics, cohort, rng, "after rebuild");
+
+        for (int i = 0; i < students / 10; i++) {
+            Student s = cohort.get(rng.nextInt(students));
+            s.addGrade(randomGrade(rng));
+            analytics.update(s);
+        }
+        for (int i = 0; i < 100; i++) {
+            Student s = new Student("Late " + i);
+            if (i % 2 == 0) s.addGrade(randomGrade(rng)); // half of them stay unranked
+            cohort.add(s);
+            analytics.update(s);
+        }
+        ok &= checkAll(analytics, cohort, rng, "after updates");
+        System.out.printf("Queries: %,d students checked against a sort, after a rebuild and after updates%n", cohort.size());
+
+        for (int size : new int[] { 1_000, 10_000, 100_000, 1_000_000 }) {
+            List<Student> big = cohort(size, rng);
+            CohortAnalytics index = new CohortAnalytics();
+            index.rebuild(big);
+            int queries = 2_000_000;
+            long sink = 0;
+            long started = System.nanoTime();
+            for (int q = 0; q < queries; q++) sink += index.rank(big.get(q % size), null);
+            double rankNanos = (System.nanoTime() - started) / (double) queries;
+            started = System.nanoTime();
+            for (int q = 0; q < queries; q++) sink += (long) index.percentile(null, (q & 1023) / 1023.0);
+            double percentileNanos = (System.nanoTime() - started) / (double) queries;
+            System.out.printf("%,9d students: rank %5.0f ns, percentile %5.0f ns per query (%d)%n",
+                    size, rankNanos, percentileNanos, sink & 1);
+        }
+
+        System.out.println(ok ? "All cohort analytics checks passed." : "Cohort analytics checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    /** Students with one to twenty random grades each. */
+    private static List<Student> cohort(int size, Random rng) {
+        List<Student> cohort = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Student s = new Student("Student " + i);
+            for (int g = rng.nextInt(20); g >= 0; g--) s.addGrade(randomGrade(rng));
+            cohort.add(s);
+        }
+        return cohort;
+    }
+
+    private static Grade randomGrade(Random rng) {
+        return new Grade(CATEGORIES[rng.nextInt(CATEGORIES.length)], rng.nextInt(10_001) / 100.0);
+    }
+
+    private static boolean checkAll(CohortAnalytics analytics, List<Student> cohort, Random rng, String when) {
+        boolean ok = true;
+        for (int d = 0; d < CohortAnalytics.DIMENSIONS; d++) {
+            GradeCategory category = d == 0 ? null : CATEGORIES[d - 1];
+            String label = (category == null ? "overall" : category.name()) + " " + when;
+            int dim = d;
+            int[] sorted = cohort.stream().mapToInt(s -> CohortAnalytics.keyOf(s, dim)).filter(k -> k >= 0).sorted().toArray();
+            int n = sorted.length;
+            ok &= check(analytics.size(category) == n, "size differs " + label);
+
+            boolean ranks = true;
+            for (Student s : cohort) {
+                int key = CohortAnalytics.keyOf(s, d);
+                if (key < 0) {
+                    ranks &= analytics.rank(s, category) == 0 && Double.isNaN(analytics.percentileOf(s, category));
+                    continue;
+                }
+                int below = lowerBound(sorted, key), above = n - lowerBound(sorted, key + 1);
+                ranks &= analytics.rank(s, category) == above + 1
+                        && analytics.percentileOf(s, category) == below / (double) n;
+            }
+            ok &= check(ranks, "rank or percentileOf differs " + label);
+
+            boolean percentiles = true;
+            for (int q = 0; q <= 100 && n > 0; q++) {
+                double p = q == 100 ? 1 : rng.nextDouble();
+                int rank = (int) Math.max(1, Math.min(n, (long) Math.ceil(p * n)));
+                percentiles &= analytics.percentile(category, p) == sorted[rank - 1] * CohortAnalytics.RESOLUTION;
+            }
+            ok &= check(percentiles, "percentile differs " + label);
+        }
+        return ok;
+    }
+
+    /** First index whose key is at least {@code key}. */
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
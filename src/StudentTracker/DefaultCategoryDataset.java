@@ -1,4 +1,97 @@
 package StudentTracker;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of values addressed by a row key (series) and a column key (category), the shape
+ * {@link ChartPanel} draws. Values are kept in one primitive array per row, so a dataset with
+ * thousands of columns costs a few bytes per cell; missing cells read as {@code NaN}.
+ *
+ * Not thread-safe: fill it on one thread, then hand it to the chart on the EDT.
+ */
 public class DefaultCategoryDataset {
+    private final List<Comparable<?>> rowKeys = new ArrayList<>();
+    private final List<Comparable<?>> columnKeys = new ArrayList<>();
+    private final Map<Comparable<?>, Integer> rowIndex = new HashMap<>();
+    private final Map<Comparable<?>, Integer> columnIndex = new HashMap<>();
+    private final List<double[]> rows = new ArrayList<>();
+    private int columnCapacity = 16;
+    // bumped on every change so views can tell when cached work is stale
+    private int version;
+
+    public void addValue(double value, Comparable<?> rowKey, Comparable<?> columnKey) {
+        setValue(value, rowKey, columnKey);
+    }
+
+    public void setValue(double value, Comparable<?> rowKey, Comparable<?> columnKey) {
+        int row = rowIndex.computeIfAbsent(rowKey, k -> addRow(k));
+        int column = columnIndex.computeIfAbsent(columnKey, k -> addColumn(k));
+        rows.get(row)[column] = value;
+        version++;
+    }
+
+    /** Adds or replaces a whole row; values[i] belongs to the i-th column, created if missing. */
+    public void setRow(Comparable<?> rowKey, Comparable<?>[] columns, double[] values) {
+        if (columns.length != values.length) throw new IllegalArgumentException("One value per column expected");
+        int row = rowIndex.computeIfAbsent(rowKey, k -> addRow(k));
+        for (int i = 0; i < columns.length; i++) {
+            int column = columnIndex.computeIfAbsent(columns[i], k -> addColumn(k));
+            rows.get(row)[column] = values[i];
+        }
+        version++;
+    }
+
+    public double getValue(int row, int column) {
+        return rows.get(row)[column];
+    }
+
+    public double getValue(Comparable<?> rowKey, Comparable<?> columnKey) {
+        Integer row = rowIndex.get(rowKey);
+        Integer column = columnIndex.get(columnKey);
+        return row == null || column == null ? Double.NaN : rows.get(row)[column];
+    }
+
+    public int getRowCount() { return rowKeys.size(); }
+    public int getColumnCount() { return columnKeys.size(); }
+    public Comparable<?> getRowKey(int row) { return rowKeys.get(row); }
+    public Comparable<?> getColumnKey(int column) { return columnKeys.get(column); }
+    public int getRowIndex(Comparable<?> rowKey) { return rowIndex.getOrDefault(rowKey, -1); }
+    public int getColumnIndex(Comparable<?> columnKey) { return columnIndex.getOrDefault(columnKey, -1); }
+
+    int getVersion() { return version; }
+
+    public void clear() {
+        rowKeys.clear();
+        columnKeys.clear();
+        rowIndex.clear();
+        columnIndex.clear();
+        rows.clear();
+        version++;
+    }
+
+    private int addRow(Comparable<?> key) {
+        double[] values = new double[columnCapacity];
+        Arrays.fill(values, Double.NaN);
+        rows.add(values);
+        rowKeys.add(key);
+        return rowKeys.size() - 1;
+    }
+
+    private int addColumn(Comparable<?> key) {
+        if (columnKeys.size() == columnCapacity) {
+            int grown = columnCapacity * 2;
+            for (int r = 0; r < rows.size(); r++) {
+                double[] values = Arrays.copyOf(rows.get(r), grown);
+                Arrays.fill(values, columnCapacity, grown, Double.NaN);
+                rows.set(r, values);
+            }
+            columnCapacity = grown;
+        }
+        columnKeys.add(key);
+        return columnKeys.size() - 1;
+    }
 }
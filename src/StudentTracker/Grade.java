@@ -0,0 +1,20 @@
+package StudentTracker;
+
+// --- GRADE CLASS ---
+class Grade {
+    private GradeCategory category;
+    private double score;
+
+    public Grade(GradeCategory category, double score) {
+        this.category = category;
+        this.score = score;
+    }
+
+    public GradeCategory getCategory() { return category; }
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return category + ": " + score;
+    }
+}
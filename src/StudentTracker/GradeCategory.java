@@ -0,0 +1,20 @@
+package StudentTracker;
+
+// --- ENUM FOR GRADE CATEGORIES ---
+enum GradeCategory {
+    TEST, ASSIGNMENT, PROJECT;
+
+    private static final GradeCategory[] VALUES = values();
+
+    /** Matches s[from, to) against the constant names without allocating; null if none match. */
+    static GradeCategory parse(CharSequence s, int from, int to) {
+        for (GradeCategory c : VALUES) {
+            String n = c.name();
+            if (n.length() != to - from) continue;
+            int i = 0;
+            while (i < n.length() && n.charAt(i) == s.charAt(from + i)) i++;
+            if (i == n.length()) return c;
+        }
+        return null;
+    }
+}
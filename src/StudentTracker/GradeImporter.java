@@ -0,0 +1,313 @@
+package StudentTracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongConsumer;
+
+/**
+ * GradeImporter
+ * ----------------
+ * Bulk import of grade rows {@code name,category,score} from exam-system CSV exports.
+ *
+ * - The file is read through a {@link FileChannel} in chunks cut at line boundaries, so memory
+ *   stays bounded by the chunks in flight whatever the file size.
+ * - Each chunk is parsed and validated on a fork-join pool straight from the bytes: the category
+ *   is matched and the score parsed without building a String per field.
+ * - Chunks are merged on the reading thread in file order into a name-keyed table, so grades keep
+ *   their row order and line numbers in the rejection report are exact.
+ *
+ * Names may be quoted ({@code "Doe, Jane"}); categories are matched ignoring case; a first line
+ * without digits whose category or score does not parse is treated as a header.
+ */
+class GradeImporter {
+    static final int CHUNK_BYTES = 8 << 20;
+    /** Rejected rows kept verbatim for the report; the rest are only counted. */
+    static final int MAX_REPORTED = 200;
+
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    public GradeImporter(ForkJoinPool pool) {
+        this.pool = pool;
+        this.maxInFlight = Math.max(2, pool.getParallelism() * 2);
+    }
+
+    public GradeImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** Parses the whole file; {@code progress} receives the bytes read so far. */
+    public ImportResult read(Path csv, LongConsumer progress) throws IOException {
+        long started = System.nanoTime();
+        ImportResult result = new ImportResult();
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        try (FileChannel ch = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = ch.size();
+            byte[] buf = new byte[(int) Math.min(CHUNK_BYTES, Math.max(size, 1))];
+            int carry = 0;
+            long read = 0;
+            boolean firstChunk = true;
+            while (true) {
+                if (carry == buf.length) buf = Arrays.copyOf(buf, buf.length * 2); // line longer than a chunk
+                int n = ch.read(ByteBuffer.wrap(buf, carry, buf.length - carry));
+                boolean eof = n < 0;
+                if (!eof) read += n;
+                int filled = carry + Math.max(n, 0);
+                int end = eof ? filled : lastNewline(buf, filled) + 1;
+                if (end > 0) {
+                    int start = 0;
+                    if (firstChunk) {
+                        start = skipBom(buf, end);
+                        start = skipHeader(buf, start, end);
+                        result.headerSkipped = start > skipBom(buf, end);
+                        firstChunk = false;
+                    }
+                    byte[] chunk = buf;
+                    if (!eof) {
+                        // the unfinished tail moves into a fresh buffer; this one now belongs to the task
+                        buf = new byte[Math.max(CHUNK_BYTES, filled - end)];
+                        System.arraycopy(chunk, end, buf, 0, filled - end);
+                    }
+                    carry = filled - end;
+                    if (inFlight.size() >= maxInFlight) result.merge(inFlight.poll().join());
+                    inFlight.add(pool.submit(new ParseTask(chunk, start, end)));
+                } else {
+                    carry = filled;
+                }
+                progress.accept(read);
+                if (eof) break;
+            }
+            while (!inFlight.isEmpty()) result.merge(inFlight.poll().join());
+            result.bytes = size;
+        }
+        result.elapsedNanos = System.nanoTime() - started;
+        return result;
+    }
+
+    private static int lastNewline(byte[] buf, int filled) {
+        for (int i = filled - 1; i >= 0; i--) if (buf[i] == '\n') return i;
+        return -1;
+    }
+
+    private static int skipBom(byte[] b, int end) {
+        return end >= 3 && (b[0] & 0xff) == 0xEF && (b[1] & 0xff) == 0xBB && (b[2] & 0xff) == 0xBF ? 3 : 0;
+    }
+
+    private static int skipHeader(byte[] b, int start, int end) {
+        int eol = start;
+        while (eol < end && b[eol] != '\n') eol++;
+        Chunk probe = new Chunk(1);
+        parseLine(b, start, eol, 0, probe);
+        if (probe.rejected == 0) return start;
+        int reason = probe.rejectReasons[0];
+        if (reason != Reject.BAD_CATEGORY.ordinal() && reason != Reject.BAD_SCORE.ordinal()) return start;
+        for (int i = start; i < eol; i++) if (b[i] >= '0' && b[i] <= '9') return start; // a bad data row
+        return Math.min(eol + 1, end);
+    }
+
+    /* ---------- parsing ---------- */
+
+    enum Reject {
+        FIELD_COUNT("expected name,category,score"),
+        MISSING_NAME("missing name"),
+        BAD_CATEGORY("unknown category"),
+        BAD_SCORE("score is not a number"),
+        OUT_OF_RANGE("score outside 0-100");
+
+        final String description;
+
+        Reject(String description) { this.description = description; }
+    }
+
+    /** Parsed rows of one chunk; line numbers are relative to the chunk start. */
+    static final class Chunk {
+        String[] names;
+        byte[] categories;
+        double[] scores;
+        int rows;
+        int lines;
+        int rejected;
+        int[] rejectLines = new int[16];
+        byte[] rejectReasons = new byte[16];
+        String[] rejectText = new String[16];
+
+        Chunk(int expectedRows) {
+            names = new String[expectedRows];
+            categories = new byte[expectedRows];
+            scores = new double[expectedRows];
+        }
+
+        void accept(String name, GradeCategory category, double score) {
+            if (rows == names.length) {
+                int grown = rows * 2 + 1;
+                names = Arrays.copyOf(names, grown);
+                categories = Arrays.copyOf(categories, grown);
+                scores = Arrays.copyOf(scores, grown);
+            }
+            names[rows] = name;
+            categories[rows] = (byte) category.ordinal();
+            scores[rows++] = score;
+        }
+
+        void reject(int line, Reject reason, byte[] b, int from, int to) {
+            if (rejected == rejectLines.length) {
+                rejectLines = Arrays.copyOf(rejectLines, rejected * 2);
+                rejectReasons = Arrays.copyOf(rejectReasons, rejected * 2);
+                rejectText = Arrays.copyOf(rejectText, rejected * 2);
+            }
+            rejectLines[rejected] = line;
+            rejectReasons[rejected] = (byte) reason.ordinal();
+            // the report shows at most MAX_REPORTED rows, so later ones only need counting
+            if (rejected < MAX_REPORTED) {
+                rejectText[rejected] = new String(b, from, Math.min(to - from, 120), StandardCharsets.UTF_8);
+            }
+            rejected++;
+        }
+    }
+
+    @SuppressWarnings("serial") // fork-join task, never serialized
+    private static final class ParseTask extends RecursiveTask<Chunk> {
+        private final byte[] b;
+        private final int from, to;
+
+        ParseTask(byte[] b, int from, int to) {
+            this.b = b;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            // ~24 bytes per row is a typical export; the arrays grow if rows are shorter
+            Chunk chunk = new Chunk(Math.max(16, (to - from) / 24));
+            int line = 0;
+            int start = from;
+            for (int i = from; i < to; i++) {
+                if (b[i] != '\n') continue;
+                parseLine(b, start, i, line++, chunk);
+                start = i + 1;
+            }
+            if (start < to) parseLine(b, start, to, line++, chunk);
+            chunk.lines = line;
+            return chunk;
+        }
+    }
+
+    private static final GradeCategory[] CATEGORIES = GradeCategory.values();
+
+    static void parseLine(byte[] b, int from, int to, int line, Chunk out) {
+        int end = to;
+        if (end > from && b[end - 1] == '\r') end--;
+        int s = skipSpaces(b, from, end);
+        if (s == end) return; // blank lines are ignored, not rejected
+
+        // name, possibly quoted with "" escapes
+        String name;
+        int i;
+        if (b[s] == '"') {
+            StringBuilder sb = null;
+            int q = s + 1, runStart = q;
+            while (true) {
+                if (q >= end) { out.reject(line, Reject.FIELD_COUNT, b, from, end); return; }
+                if (b[q] == '"') {
+                    if (q + 1 < end && b[q + 1] == '"') {
+                        if (sb == null) sb = new StringBuilder();
+                        sb.append(new String(b, runStart, q + 1 - runStart, StandardCharsets.UTF_8));
+                        q += 2;
+                        runStart = q;
+                        continue;
+                    }
+                    break;
+                }
+                q++;
+            }
+            String tail = new String(b, runStart, q - runStart, StandardCharsets.UTF_8);
+            name = (sb == null ? tail : sb.append(tail).toString()).trim();
+            i = skipSpaces(b, q + 1, end);
+        } else {
+            i = s;
+            while (i < end && b[i] != ',') i++;
+            int e = i;
+            while (e > s && b[e - 1] == ' ') e--;
+            name = e > s ? new String(b, s, e - s, StandardCharsets.UTF_8) : "";
+        }
+        if (i >= end || b[i] != ',') { out.reject(line, Reject.FIELD_COUNT, b, from, end); return; }
+        if (name.isEmpty()) { out.reject(line, Reject.MISSING_NAME, b, from, end); return; }
+
+        int c0 = skipSpaces(b, i + 1, end);
+        int c1 = c0;
+        while (c1 < end && b[c1] != ',') c1++;
+        if (c1 >= end) { out.reject(line, Reject.FIELD_COUNT, b, from, end); return; }
+        int s0 = c1 + 1;
+        int s1 = s0;
+        while (s1 < end && b[s1] != ',') s1++;
+        if (s1 != end) { out.reject(line, Reject.FIELD_COUNT, b, from, end); return; }
+
+        GradeCategory category = category(b, c0, trimEnd(b, c0, c1));
+        if (category == null) { out.reject(line, Reject.BAD_CATEGORY, b, from, end); return; }
+        double score = score(b, skipSpaces(b, s0, s1), trimEnd(b, s0, s1));
+        if (Double.isNaN(score)) { out.reject(line, Reject.BAD_SCORE, b, from, end); return; }
+        if (score < 0 || score > 100) { out.reject(line, Reject.OUT_OF_RANGE, b, from, end); return; }
+        out.accept(name, category, score);
+    }
+
+    private static int skipSpaces(byte[] b, int i, int end) {
+        while (i < end && (b[i] == ' ' || b[i] == '\t')) i++;
+        return i;
+    }
+
+    private static int trimEnd(byte[] b, int from, int end) {
+        while (end > from && (b[end - 1] == ' ' || b[end - 1] == '\t')) end--;
+        return end;
+    }
+
+    /** ASCII case-insensitive match against the category names; null if none match. */
+    private static GradeCategory category(byte[] b, int from, int to) {
+        for (GradeCategory c : CATEGORIES) {
+            String n = c.name();
+            if (n.length() != to - from) continue;
+            int i = 0;
+            while (i < n.length() && (b[from + i] & ~0x20) == n.charAt(i)) i++;
+            if (i == n.length()) return c;
+        }
+        return null;
+    }
+
+    /** Plain decimals are parsed in place; anything else goes through Double.parseDouble. NaN if invalid. */
+    private static double score(byte[] b, int from, int to) {
+        if (from == to) return Double.NaN;
+        long digits = 0;
+        int scale = -1;
+        int i = from;
+        for (; i < to && i - from < 15; i++) {
+            byte ch = b[i];
+            if (ch >= '0' && ch <= '9') {
+                digits = digits * 10 + (ch - '0');
+                if (scale >= 0) scale++;
+            } else if (ch == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == to && !(scale == 0 && to - from == 1)) {
+            return scale <= 0 ? digits : digits / POWERS_OF_TEN[scale];
+        }
+        try {
+            double v = Double.parseDouble(new String(b, from, to - from, StandardCharsets.US_ASCII));
+            return Double.isFinite(v) ? v : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+}
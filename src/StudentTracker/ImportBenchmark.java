@@ -0,0 +1,137 @@
+package StudentTracker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * ImportBenchmark
+ * ----------------
+ * Runnable checks and timing for the CSV grade import, on a generated export in a temporary file:
+ *
+ * - Accepted and rejected row counts, rejections per reason, and every student's grades match
+ *   what was written; a rejected row is reported with its line number as an editor shows it.
+ * - Read throughput in rows and megabytes per second.
+ * - Time to stage the merge against an existing cohort (worker side) and to publish it (EDT side).
+ *
+ * Run: java StudentTracker.ImportBenchmark [rows]
+ * Exits with status 1 if a check fails.
+ */
+class ImportBenchmark {
+    private static final GradeCategory[] CATEGORIES = GradeCategory.values();
+    /** One row in this many is malformed, cycling through the rejection reasons. */
+    private static final int BAD_EVERY = 1_000;
+    private static final String[] BAD_ROWS = {
+            "no commas here", ",TEST,50", "Nobody,QUIZ,50", "Nobody,TEST,abc", "Nobody,TEST,101" };
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        boolean ok = true;
+        Random rng = new Random(9);
+        Path csv = Files.createTempFile("grades", ".csv");
+        try {
+            // grouped by student like an exam-system export, ten rows each; some names need quoting
+            Map<String, List<Grade>> expected = new LinkedHashMap<>();
+            long bad = 0;
+            try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                out.write("name,category,score\n");
+                for (int r = 0; r < rows; r++) {
+                    if (r % BAD_EVERY == BAD_EVERY - 1) {
+                        out.write(BAD_ROWS[(int) (bad++ % BAD_ROWS.length)]);
+                        out.write('\n');
+                        continue;
+                    }
+                    int student = r / 10;
+                    String name = student % 7 == 0 ? "Doe, Student " + student : "Student " + student;
+                    Grade g = new Grade(CATEGORIES[rng.nextInt(CATEGORIES.length)], rng.nextInt(10_001) / 100.0);
+                    expected.computeIfAbsent(name, n -> new ArrayList<>()).add(g);
+                    out.write(name.indexOf(',') >= 0 ? '"' + name + '"' : name);
+                    out.write(',');
+                    out.write(g.getCategory().name().toLowerCase(Locale.ROOT));
+                    out.write(',');
+                    out.write(String.format(Locale.ROOT, "%.2f", g.getScore()));
+                    out.write('\n');
+                }
+            }
+            long bytes = Files.size(csv);
+
+            GradeImporter importer = new GradeImporter();
+            ImportResult result = null;
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 4; round++) { // the first round warms up the JIT
+                result = importer.read(csv, read -> { });
+                if (round > 0) best = Math.min(best, result.elapsedNanos);
+            }
+            System.out.printf("Read: %,d rows, %.1f MB in %d ms (%,.0f rows/s, %.0f MB/s)%n",
+                    rows, bytes / 1e6, best / 1_000_000, rows / (best / 1e9), bytes / 1e6 / (best / 1e9));
+
+            ok &= check(result.headerSkipped, "header line was not skipped");
+            ok &= check(result.accepted == rows - bad && result.rejected == bad,
+                    "accepted " + result.accepted + " and rejected " + result.rejected + ", expected " + (rows - bad) + " and " + bad);
+            boolean reasons = true;
+            for (int i = 0; i < BAD_ROWS.length; i++) {
+                reasons &= result.rejectedByReason[i] == bad / BAD_ROWS.length + (i < bad % BAD_ROWS.length ? 1 : 0);
+            }
+            ok &= check(reasons, "rejections per reason differ: " + Arrays.toString(result.rejectedByReason));
+            ok &= check(bad == 0 || result.rejectedSamples.get(0).startsWith("line " + (BAD_EVERY + 1) + ": "),
+                    "first rejected row reported as " + (bad == 0 ? "" : result.rejectedSamples.get(0)));
+            ok &= check(sameGrades(expected, result.gradesByName), "imported grades differ from the file");
+
+            // half the names already exist: stage merges copies of those and indexes the rest
+            List<Student> students = new ArrayList<>();
+            Map<String, Student> index = new HashMap<>();
+            int i = 0;
+            for (String name : expected.keySet()) {
+                if (i++ % 2 != 0) continue;
+                Student s = new Student(name);
+                s.addGrade(new Grade(GradeCategory.TEST, 50));
+                students.add(s);
+                index.put(name, s);
+            }
+            CohortAnalytics analytics = new CohortAnalytics();
+            analytics.rebuild(students);
+            int existing = students.size();
+            long started = System.nanoTime();
+            result.stage(index, analytics);
+            long staged = System.nanoTime() - started;
+            started = System.nanoTime();
+            int[] touched = new int[1];
+            int added = result.publish(students, index, s -> touched[0]++);
+            long published = System.nanoTime() - started;
+            System.out.printf("Merge: staged in %d ms off the EDT, published in %d ms (%,d updated, %,d added)%n",
+                    staged / 1_000_000, published / 1_000_000, existing, added);
+            ok &= check(added == expected.size() - existing && touched[0] == expected.size()
+                    && students.size() == expected.size(), "merge added " + added + " and touched " + touched[0]);
+            ok &= check(result.analytics.size(null) == expected.size(), "merged cohort index has the wrong size");
+            Student first = index.get(expected.keySet().iterator().next());
+            ok &= check(first.getGradeCount() == expected.values().iterator().next().size() + 1,
+                    "existing student did not gain the imported grades");
+        } finally {
+            Files.delete(csv);
+        }
+
+        System.out.println(ok ? "All import checks passed." : "Import checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean sameGrades(Map<String, List<Grade>> expected, Map<String, Student> imported) {
+        if (expected.size() != imported.size()) return false;
+        for (Map.Entry<String, List<Grade>> e : expected.entrySet()) {
+            Student s = imported.get(e.getKey());
+            if (s == null || s.getGradeCount() != e.getValue().size()) return false;
+            for (int g = 0; g < s.getGradeCount(); g++) {
+                Grade x = e.getValue().get(g), y = s.getGrades().get(g);
+                if (x.getCategory() != y.getCategory() || x.getScore() != y.getScore()) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
@@ -0,0 +1,112 @@
+package StudentTracker;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Outcome of one CSV import: accepted grades staged as one new {@link Student} per name, plus the
+ * rejections. {@link #stage} works out the merge off the EDT, leaving {@link #publish} O(1) work
+ * per touched student however many grades it gained.
+ */
+class ImportResult {
+    final LinkedHashMap<String, Student> gradesByName = new LinkedHashMap<>();
+    // filled in by stage(): existing students with their merged copies, and the students that are new
+    private final ArrayList<Student> updated = new ArrayList<>();
+    private final ArrayList<Student> replacements = new ArrayList<>();
+    private final ArrayList<Student> created = new ArrayList<>();
+    /** The cohort index with every staged change applied; set by {@link #stage}. */
+    CohortAnalytics analytics;
+    final long[] rejectedByReason = new long[GradeImporter.Reject.values().length];
+    final ArrayList<String> rejectedSamples = new ArrayList<>();
+    long lines;
+    long accepted;
+    long rejected;
+    long bytes;
+    long elapsedNanos;
+    boolean headerSkipped;
+
+    /** Appends one parsed chunk; chunks must arrive in file order. */
+    void merge(GradeImporter.Chunk chunk) {
+        GradeCategory[] categories = GradeCategory.values();
+        String previous = null;
+        Student staged = null;
+        for (int r = 0; r < chunk.rows; r++) {
+            String name = chunk.names[r];
+            // exports are usually grouped by student, so consecutive rows skip the lookup
+            if (!name.equals(previous)) {
+                staged = gradesByName.computeIfAbsent(name, Student::new);
+                previous = name;
+            }
+            staged.addGrade(new Grade(categories[chunk.categories[r]], chunk.scores[r]));
+        }
+        accepted += chunk.rows;
+        // +1 for the header so line numbers match what an editor shows
+        long firstLine = lines + 1 + (headerSkipped ? 1 : 0);
+        for (int i = 0; i < chunk.rejected; i++) {
+            GradeImporter.Reject reason = GradeImporter.Reject.values()[chunk.rejectReasons[i]];
+            rejectedByReason[reason.ordinal()]++;
+            if (rejectedSamples.size() < GradeImporter.MAX_REPORTED && chunk.rejectText[i] != null) {
+                rejectedSamples.add("line " + (firstLine + chunk.rejectLines[i]) + ": " + reason.description
+                        + " — " + chunk.rejectText[i]);
+            }
+        }
+        rejected += chunk.rejected;
+        lines += chunk.lines;
+    }
+
+    /**
+     * Prepares the merge off the EDT: a merged copy of each existing student with a staged name,
+     * and a copy of {@code current} updated for them and for the new students. Only reads
+     * {@code index}, its students and {@code current}, which must not change until {@link #publish}.
+     */
+    void stage(Map<String, Student> index, CohortAnalytics current) {
+        analytics = current.copy();
+        for (Student staged : gradesByName.values()) {
+            Student existing = index.get(staged.getName());
+            if (existing == null) {
+                created.add(staged);
+                analytics.update(staged);
+            } else {
+                Student merged = existing.mergedWith(staged);
+                analytics.update(merged);
+                updated.add(existing);
+                replacements.add(merged);
+            }
+        }
+    }
+
+    /**
+     * Installs what {@link #stage} prepared. Runs on the EDT; {@code index} maps names to students
+     * and is kept up to date. Returns the number of students added.
+     */
+    int publish(List<Student> students, Map<String, Student> index, Consumer<Student> touched) {
+        for (int i = 0; i < updated.size(); i++) {
+            Student s = updated.get(i);
+            s.adopt(replacements.get(i));
+            touched.accept(s);
+        }
+        for (Student s : created) {
+            index.putIfAbsent(s.getName(), s);
+            students.add(s);
+            touched.accept(s);
+        }
+        return created.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Imported %,d grades for %,d students from %,d rows (%.1f MB in %d ms).%n",
+                accepted, gradesByName.size(), accepted + rejected, bytes / 1e6, elapsedNanos / 1_000_000));
+        if (rejected == 0) return sb.append("No rows rejected.").toString();
+        sb.append(String.format("Rejected %,d rows:%n", rejected));
+        for (GradeImporter.Reject r : GradeImporter.Reject.values()) {
+            if (rejectedByReason[r.ordinal()] > 0) {
+                sb.append(String.format("  %-24s %,d%n", r.description, rejectedByReason[r.ordinal()]));
+            }
+        }
+        sb.append(String.format("%nFirst %d rejected rows:%n", rejectedSamples.size()));
+        for (String s : rejectedSamples) sb.append(s).append('\n');
+        return sb.toString();
+    }
+}
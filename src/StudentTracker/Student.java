@@ -0,0 +1,110 @@
+package StudentTracker;
+
+import java.util.*;
+
+// --- STUDENT CLASS ---
+// Keeps running sum/count/min/max overall and per category, so every statistic is O(1).
+class Student {
+    private static final int CATEGORIES = GradeCategory.values().length;
+
+    private String name;
+    private ArrayList<Grade> grades;
+    // position in the StudentStore: store id (-1 until first saved) and how many grades are on disk
+    int storeId = -1;
+    int persistedGrades;
+    // bucket of each average last indexed by CohortAnalytics (overall, then per category); null until indexed
+    int[] cohortKeys;
+
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final double[] categorySum = new double[CATEGORIES];
+    private final int[] categoryCount = new int[CATEGORIES];
+    private final double[] categoryMin = new double[CATEGORIES];
+    private final double[] categoryMax = new double[CATEGORIES];
+
+    public Student(String name) {
+        this.name = name;
+        this.grades = new ArrayList<>();
+        Arrays.fill(categoryMin, Double.POSITIVE_INFINITY);
+        Arrays.fill(categoryMax, Double.NEGATIVE_INFINITY);
+    }
+
+    public String getName() { return name; }
+    /** Read-only; use {@link #addGrade} so the running statistics stay in step. */
+    public java.util.List<Grade> getGrades() { return Collections.unmodifiableList(grades); }
+    public int getGradeCount() { return grades.size(); }
+
+    /** Independent copy (same immutable Grade objects) that another thread can read safely. */
+    Student snapshot() {
+        Student copy = new Student(name);
+        for (Grade g : grades) copy.addGrade(g);
+        return copy;
+    }
+
+    /**
+     * Copy of this student with {@code more}'s grades appended, cohort keys included, so an update
+     * can be prepared off the EDT and then installed with {@link #adopt}.
+     */
+    Student mergedWith(Student more) {
+        Student copy = snapshot();
+        for (Grade g : more.grades) copy.addGrade(g);
+        if (cohortKeys != null) copy.cohortKeys = cohortKeys.clone();
+        return copy;
+    }
+
+    /** Takes over the grades, statistics and cohort keys of a {@link #mergedWith} copy; store ids stay. */
+    void adopt(Student copy) {
+        grades = copy.grades;
+        sum = copy.sum;
+        min = copy.min;
+        max = copy.max;
+        System.arraycopy(copy.categorySum, 0, categorySum, 0, CATEGORIES);
+        System.arraycopy(copy.categoryCount, 0, categoryCount, 0, CATEGORIES);
+        System.arraycopy(copy.categoryMin, 0, categoryMin, 0, CATEGORIES);
+        System.arraycopy(copy.categoryMax, 0, categoryMax, 0, CATEGORIES);
+        cohortKeys = copy.cohortKeys;
+    }
+
+    public void addGrade(Grade grade) {
+        grades.add(grade);
+        double score = grade.getScore();
+        sum += score;
+        if (score < min) min = score;
+        if (score > max) max = score;
+        int c = grade.getCategory().ordinal();
+        categorySum[c] += score;
+        categoryCount[c]++;
+        if (score < categoryMin[c]) categoryMin[c] = score;
+        if (score > categoryMax[c]) categoryMax[c] = score;
+    }
+
+    public double getAverageGrade() {
+        return grades.isEmpty() ? 0 : sum / grades.size();
+    }
+
+    public double getHighestGrade() {
+        return grades.isEmpty() ? 0 : max;
+    }
+
+    public double getLowestGrade() {
+        return grades.isEmpty() ? 0 : min;
+    }
+
+    public int getGradeCount(GradeCategory category) { return categoryCount[category.ordinal()]; }
+
+    public double getAverageGrade(GradeCategory category) {
+        int c = category.ordinal();
+        return categoryCount[c] == 0 ? 0 : categorySum[c] / categoryCount[c];
+    }
+
+    public double getHighestGrade(GradeCategory category) {
+        int c = category.ordinal();
+        return categoryCount[c] == 0 ? 0 : categoryMax[c];
+    }
+
+    public double getLowestGrade(GradeCategory category) {
+        int c = category.ordinal();
+        return categoryCount[c] == 0 ? 0 : categoryMin[c];
+    }
+}
@@ -1,167 +1,387 @@
 package StudentTracker;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.ActionListener;
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
-// --- ENUM FOR GRADE CATEGORIES ---
-enum GradeCategory {
-    TEST, ASSIGNMENT, PROJECT
-}
-
-// --- GRADE CLASS ---
-class Grade {
-    private GradeCategory category;
-    private double score;
+// --- FILE MANAGER FOR SAVE/LOAD ---
+// Students live in an append-only binary store; students.txt is imported once and can be exported.
+// Everything here does disk I/O and is meant to run off the EDT.
+class FileManager {
+    private static final String FILE_NAME = "students.txt";
+    private static final String STORE_NAME = "students.db";
+    private static StudentStore store;
 
-    public Grade(GradeCategory category, double score) {
-        this.category = category;
-        this.score = score;
+    static synchronized StudentStore store() throws IOException {
+        if (store == null) store = StudentStore.open(Paths.get(STORE_NAME));
+        return store;
     }
 
-    public GradeCategory getCategory() { return category; }
-    public double getScore() { return score; }
-
-    @Override
-    public String toString() {
-        return category + ": " + score;
+    /** Streams saved students to {@code sink} in batches, importing students.txt on first run. */
+    public static void loadData(int batchSize, Consumer<StudentStore.Batch> sink) throws IOException {
+        Path text = Paths.get(FILE_NAME);
+        if (store().isEmpty() && Files.exists(text)) importFirstRun(text);
+        StudentStore st = store();
+        if (st.isEmpty()) System.out.println("No previous data found. Starting fresh.");
+        st.load(batchSize, sink);
     }
-}
 
-// --- STUDENT CLASS ---
-class Student {
-    private String name;
-    private ArrayList<Grade> grades;
-
-    public Student(String name) {
-        this.name = name;
-        this.grades = new ArrayList<>();
+    /**
+     * Builds the store from students.txt under a temporary name and only renames it into place
+     * once complete, so a crash part way leaves students.db empty and the next start imports again.
+     */
+    private static synchronized void importFirstRun(Path text) throws IOException {
+        ArrayList<Student> imported = StudentStore.importText(text);
+        Path target = Paths.get(STORE_NAME);
+        Path staging = Paths.get(STORE_NAME + ".import");
+        Files.deleteIfExists(staging);
+        try (StudentStore fresh = StudentStore.open(staging)) {
+            for (Student s : imported) fresh.appendStudent(s);
+        }
+        store.close();
+        store = null;
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Imported " + imported.size() + " students from " + FILE_NAME + " into " + STORE_NAME);
     }
 
-    public String getName() { return name; }
-    public ArrayList<Grade> getGrades() { return grades; }
+    public static void exportText(java.util.List<Student> students) throws IOException {
+        StudentStore.exportText(students, Paths.get(FILE_NAME));
+    }
 
-    public void addGrade(Grade grade) {
-        grades.add(grade);
+    public static void close() throws IOException {
+        if (store != null) store.close();
     }
+}
 
-    public double getAverageGrade() {
-        if (grades.isEmpty()) return 0;
-        double total = 0;
-        for (Grade g : grades) total += g.getScore();
-        return total / grades.size();
+// --- BACKGROUND AUTOSAVE ---
+// Edits are marked dirty on the EDT; after a quiet period their new data is snapshotted on the EDT
+// and written by a single background thread, so the UI never waits on the disk. A student only
+// counts as saved once the writer reports its records reached the store; anything that did not is
+// marked dirty again and retried.
+class AutoSaver {
+    private static final int DEBOUNCE_MS = 1500;
+
+    private final Set<Student> dirty = new LinkedHashSet<>(); // EDT only
+    private final javax.swing.Timer timer;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-autosave");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Consumer<String> status;
+    // store ids are assigned here, in the same order the writer appends; -1 until loading finished
+    private int nextStoreId = -1;
+    private boolean writing;      // a batch is with the writer; only one at a time, so ids stay in step
+    private boolean unsynced;     // the last batch failed, so the store may hold records not yet on disk
+    private Consumer<String> onShutdown;
+
+    AutoSaver(Consumer<String> status) {
+        this.status = status;
+        timer = new javax.swing.Timer(DEBOUNCE_MS, e -> flush());
+        timer.setRepeats(false);
     }
 
-    public double getHighestGrade() {
-        return grades.stream().mapToDouble(Grade::getScore).max().orElse(0);
+    /** Enables writing once the store has been loaded and its size is known. */
+    void ready(int storeSize) {
+        nextStoreId = storeSize;
+        if (!dirty.isEmpty()) timer.restart();
     }
 
-    public double getLowestGrade() {
-        return grades.stream().mapToDouble(Grade::getScore).min().orElse(0);
+    void markDirty(Student s) {
+        dirty.add(s);
+        timer.restart();
     }
-}
 
-// --- FILE MANAGER FOR SAVE/LOAD ---
-class FileManager {
-    private static final String FILE_NAME = "students.txt";
+    /** Hands every unsaved student and grade to the writer thread and returns immediately. */
+    void flush() {
+        timer.stop();
+        if (nextStoreId < 0 || writing) return; // a running batch flushes again when it completes
+        if (dirty.isEmpty() && !unsynced) {
+            if (onShutdown != null) close(null);
+            return;
+        }
+        ArrayList<PendingWrite> writes = new ArrayList<>(dirty.size());
+        int id = nextStoreId;
+        for (Student s : dirty) {
+            java.util.List<Grade> grades = s.getGrades();
+            if (s.storeId < 0) {
+                writes.add(new PendingWrite(s, id++, s.getName(), new ArrayList<>(grades)));
+            } else if (s.persistedGrades < grades.size()) {
+                writes.add(new PendingWrite(s, s.storeId, null,
+                        new ArrayList<>(grades.subList(s.persistedGrades, grades.size()))));
+            }
+        }
+        dirty.clear();
+        writing = true;
+        status.accept("Saving " + writes.size() + " change(s)…");
+        io.execute(() -> {
+            IOException failure = null;
+            int storeSize = -1;
+            try {
+                StudentStore st = FileManager.store();
+                try {
+                    for (PendingWrite w : writes) {
+                        if (w.name != null) {
+                            st.appendStudent(w.id, w.name, java.util.List.of());
+                            w.created = true;
+                        }
+                        // one grade per call, so a failure part way still says exactly what was stored
+                        for (Grade g : w.grades) {
+                            st.appendGrades(w.id, java.util.List.of(g));
+                            w.stored++;
+                        }
+                    }
+                    st.flush();
+                } finally {
+                    storeSize = st.size();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            IOException result = failure;
+            int size = storeSize;
+            SwingUtilities.invokeLater(() -> written(writes, size, result));
+        });
+    }
 
-    public static void saveData(ArrayList<Student> students) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(FILE_NAME))) {
-            for (Student s : students) {
-                writer.println("STUDENT:" + s.getName());
-                for (Grade g : s.getGrades()) {
-                    writer.println(g.getCategory() + "," + g.getScore());
+    /** Runs on the EDT once the writer is done with a batch; records what it stored. */
+    private void written(java.util.List<PendingWrite> writes, int storeSize, IOException failure) {
+        writing = false;
+        for (PendingWrite w : writes) {
+            if (w.name != null) {
+                if (!w.created) {
+                    dirty.add(w.student);
+                    continue;
                 }
-                writer.println("END");
+                w.student.storeId = w.id;
+            }
+            w.student.persistedGrades += w.stored;
+            if (w.stored < w.grades.size()) dirty.add(w.student);
+        }
+        if (storeSize >= 0) nextStoreId = storeSize;
+        unsynced = failure != null;
+        if (failure != null) {
+            if (onShutdown != null) {
+                close(failure.getMessage());
+                return;
             }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error saving data: " + e.getMessage());
+            status.accept("⚠ Autosave failed: " + failure.getMessage() + " (will retry)");
+            timer.restart();
+            return;
         }
+        status.accept("💾 Saved at " + java.time.LocalTime.now().withNano(0));
+        if (onShutdown != null) flush();
+        else if (!dirty.isEmpty()) timer.restart();
     }
 
-    public static ArrayList<Student> loadData() {
-        ArrayList<Student> students = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(FILE_NAME))) {
-            Student current = null;
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
-                if (line.startsWith("STUDENT:")) {
-                    current = new Student(line.substring(8));
-                } else if (line.equals("END")) {
-                    if (current != null) students.add(current);
-                } else if (!line.isEmpty() && current != null) {
-                    String[] parts = line.split(",");
-                    GradeCategory category = GradeCategory.valueOf(parts[0]);
-                    double score = Double.parseDouble(parts[1]);
-                    current.addGrade(new Grade(category, score));
-                }
+    /** Exports a snapshot of the students to the text format in the background. */
+    void export(java.util.List<Student> students) {
+        ArrayList<Student> snapshot = new ArrayList<>(students.size());
+        for (Student s : students) snapshot.add(s.snapshot());
+        status.accept("Exporting " + snapshot.size() + " students…");
+        io.execute(() -> {
+            try {
+                FileManager.exportText(snapshot);
+                SwingUtilities.invokeLater(() -> status.accept("📤 Exported to students.txt"));
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> status.accept("⚠ Export failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Writes everything pending, closes the store, then hands {@code then} null on success or
+     * the reason the data could not be saved, on the EDT.
+     */
+    void shutdown(Consumer<String> then) {
+        if (onShutdown != null) return; // already on the way out
+        onShutdown = then;
+        if (nextStoreId < 0) close("the saved data was never loaded");
+        else flush();
+    }
+
+    private void close(String error) {
+        Consumer<String> then = onShutdown;
+        io.execute(() -> {
+            String result = error;
+            try {
+                FileManager.close();
+            } catch (IOException e) {
+                if (result == null) result = e.getMessage();
             }
-        } catch (FileNotFoundException e) {
-            System.out.println("No previous data found. Starting fresh.");
+            String reported = result;
+            SwingUtilities.invokeLater(() -> then.accept(reported));
+        });
+        io.shutdown();
+    }
+
+    private static final class PendingWrite {
+        final Student student;
+        final int id;
+        final String name; // null when only grades are added
+        final java.util.List<Grade> grades;
+        // filled in by the writer thread, read on the EDT after the batch
+        boolean created;
+        int stored;
+
+        PendingWrite(Student student, int id, String name, java.util.List<Grade> grades) {
+            this.student = student;
+            this.id = id;
+            this.name = name;
+            this.grades = grades;
         }
-        return students;
     }
 }
 
 // --- MAIN GUI CLASS ---
 public class StudentGradeTrackerGUI extends JFrame {
+    private static final int LOAD_BATCH = 10_000;
+
     private ArrayList<Student> students;
-    private DefaultTableModel tableModel;
+    private StudentTableModel tableModel;
     private JTable table;
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JProgressBar loadProgress = new JProgressBar(0, 100);
+    private final AutoSaver autoSaver = new AutoSaver(statusLabel::setText);
+    // replaced by the index the load worker builds; until then statistics are unavailable
+    private CohortAnalytics analytics = new CohortAnalytics();
+    // added before the load finished, so left out of the index it builds
+    private final ArrayList<Student> addedWhileLoading = new ArrayList<>();
+    // first student with each name; what CSV imports and rank lookups merge against
+    private final HashMap<String, Student> studentIndex = new HashMap<>();
+    private final JButton addBtn = new JButton("➕ Add Student");
+    private final JButton sortBtn = new JButton("🏆 Sort by Average");
+    private final JButton importBtn = new JButton("📥 Import CSV");
+    private final JButton statsBtn = new JButton("📊 Statistics");
+    private final JButton exportBtn = new JButton("📤 Export Text");
+    private final JButton exitBtn = new JButton("🚪 Exit");
+    private boolean loading = true;
 
     public StudentGradeTrackerGUI() {
         setTitle("🎓 Student Grade Tracker");
         setSize(800, 500);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) { exitProgram(); }
+        });
         setLocationRelativeTo(null);
 
-        students = FileManager.loadData();
+        students = new ArrayList<>();
 
         // --- TABLE SETUP ---
-        String[] columns = {"Student Name", "Grades", "Average", "Highest", "Lowest"};
-        tableModel = new DefaultTableModel(columns, 0);
+        tableModel = new StudentTableModel(students);
         table = new JTable(tableModel);
-        refreshTable();
+        table.setDefaultRenderer(Double.class, new StudentTableModel.ScoreRenderer());
 
         // --- BUTTONS ---
-        JButton addBtn = new JButton("➕ Add Student");
-        JButton sortBtn = new JButton("🏆 Sort by Average");
         JButton saveBtn = new JButton("💾 Save Data");
-        JButton exitBtn = new JButton("🚪 Exit");
 
         addBtn.addActionListener(e -> addStudent());
         sortBtn.addActionListener(e -> sortStudents());
+        importBtn.addActionListener(e -> importCsv());
+        importBtn.setEnabled(false); // until the saved students are loaded and indexed
+        statsBtn.addActionListener(e -> showStatistics());
+        statsBtn.setEnabled(false);  // the cohort index is built once the load finishes
         saveBtn.addActionListener(e -> saveData());
+        exportBtn.addActionListener(e -> exportData());
+        exportBtn.setEnabled(false); // an export before the load finishes would write a partial list
         exitBtn.addActionListener(e -> exitProgram());
+        exitBtn.setEnabled(false);   // edits made during the load can only be saved once it finishes
 
         JPanel btnPanel = new JPanel();
         btnPanel.add(addBtn);
         btnPanel.add(sortBtn);
+        btnPanel.add(importBtn);
+        btnPanel.add(statsBtn);
         btnPanel.add(saveBtn);
+        btnPanel.add(exportBtn);
         btnPanel.add(exitBtn);
 
+        // --- STATUS BAR ---
+        loadProgress.setStringPainted(true);
+        JPanel statusPanel = new JPanel(new BorderLayout(8, 0));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(loadProgress, BorderLayout.EAST);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(btnPanel, BorderLayout.CENTER);
+        south.add(statusPanel, BorderLayout.SOUTH);
+
         add(new JScrollPane(table), BorderLayout.CENTER);
-        add(btnPanel, BorderLayout.SOUTH);
+        add(south, BorderLayout.SOUTH);
+
+        loadInBackground();
     }
 
-    // --- REFRESH TABLE DATA ---
-    private void refreshTable() {
-        tableModel.setRowCount(0);
-        for (Student s : students) {
-            StringBuilder gradeStr = new StringBuilder();
-            for (Grade g : s.getGrades()) {
-                gradeStr.append(g.toString()).append(" | ");
+    // --- BACKGROUND LOAD ---
+    // Students stream in from a worker thread in batches; the table grows as they arrive.
+    // The worker then builds the cohort index, and the EDT only swaps it in.
+    private void loadInBackground() {
+        statusLabel.setText("Loading students…");
+        SwingWorker<Integer, Void> worker = new SwingWorker<>() {
+            private CohortAnalytics built;
+
+            @Override
+            protected Integer doInBackground() throws Exception {
+                ArrayList<Student> loaded = new ArrayList<>();
+                FileManager.loadData(LOAD_BATCH, batch -> {
+                    loaded.addAll(batch.students);
+                    // invokeLater rather than publish, so batches stay in order ahead of the barrier below
+                    SwingUtilities.invokeLater(() -> addBatch(batch));
+                    setProgress((int) (100 * batch.bytesRead / Math.max(1, batch.totalBytes)));
+                });
+                // once every batch, late grades included, is applied on the EDT, the loaded students
+                // stay as they are until done(): importing is disabled and adding creates new ones
+                SwingUtilities.invokeAndWait(() -> statusLabel.setText("Indexing " + students.size() + " students…"));
+                CohortAnalytics index = new CohortAnalytics();
+                index.rebuild(loaded);
+                built = index;
+                return FileManager.store().size();
             }
-            Object[] row = {
-                    s.getName(),
-                    gradeStr.toString(),
-                    String.format("%.2f", s.getAverageGrade()),
-                    String.format("%.2f", s.getHighestGrade()),
-                    String.format("%.2f", s.getLowestGrade())
-            };
-            tableModel.addRow(row);
+
+            @Override
+            protected void done() {
+                loading = false;
+                loadProgress.setVisible(false);
+                exitBtn.setEnabled(true);
+                statsBtn.setEnabled(true);
+                try {
+                    int storeSize = get();
+                    analytics = built;
+                    autoSaver.ready(storeSize);
+                    importBtn.setEnabled(true);
+                    exportBtn.setEnabled(true);
+                    statusLabel.setText("Loaded " + students.size() + " students.");
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("⚠ Error loading data: " + cause.getMessage() + " (changes will not be saved)");
+                }
+                for (Student s : addedWhileLoading) analytics.update(s);
+                addedWhileLoading.clear();
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) loadProgress.setValue((Integer) e.getNewValue());
+        });
+        worker.execute();
+    }
+
+    private void addBatch(StudentStore.Batch batch) {
+        batch.applyLateGrades();
+        if (!batch.lateGrades.isEmpty()) tableModel.studentsReordered();
+        if (!batch.students.isEmpty()) {
+            int first = students.size();
+            students.addAll(batch.students);
+            for (Student s : batch.students) studentIndex.putIfAbsent(s.getName(), s);
+            tableModel.studentsAdded(first, students.size() - 1);
         }
+        statusLabel.setText("Loading students… " + students.size());
     }
 
     // --- ADD STUDENT FUNCTION ---
@@ -195,28 +415,156 @@ public class StudentGradeTrackerGUI extends JFrame {
         }
 
         students.add(student);
-        refreshTable();
+        studentIndex.putIfAbsent(name, student);
+        tableModel.studentsAdded(students.size() - 1, students.size() - 1);
+        autoSaver.markDirty(student);
+        if (loading) addedWhileLoading.add(student);
+        else analytics.update(student);
         JOptionPane.showMessageDialog(this, "✅ Student added successfully!");
     }
 
+    // --- CSV IMPORT FUNCTION ---
+    // Parsing and merging run off the EDT; done() installs the prepared students and refreshes the table.
+    // Adding, sorting and importing stay disabled meanwhile, since the worker reads the students and index.
+    private void importCsv() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setDialogTitle("Import grades (name,category,score)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+
+        setEditingEnabled(false);
+        loadProgress.setValue(0);
+        loadProgress.setVisible(true);
+        statusLabel.setText("Importing " + file.getFileName() + "…");
+        SwingWorker<ImportResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ImportResult doInBackground() throws Exception {
+                long size = Math.max(1, Files.size(file));
+                ImportResult result = new GradeImporter().read(file, bytes -> setProgress((int) (100 * bytes / size)));
+                result.stage(studentIndex, analytics);
+                return result;
+            }
+
+            @Override
+            protected void done() {
+                loadProgress.setVisible(false);
+                setEditingEnabled(true);
+                ImportResult result;
+                try {
+                    result = get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    statusLabel.setText("⚠ Import failed: " + cause.getMessage());
+                    return;
+                }
+                int first = students.size();
+                int created = result.publish(students, studentIndex, autoSaver::markDirty);
+                analytics = result.analytics;
+                if (created > 0) tableModel.studentsAdded(first, students.size() - 1);
+                if (result.gradesByName.size() > created) tableModel.studentsReordered();
+                statusLabel.setText(String.format("📥 Imported %,d grades (%,d new students), %,d rows rejected",
+                        result.accepted, created, result.rejected));
+
+                JTextArea report = new JTextArea(result.toString(), 16, 80);
+                report.setEditable(false);
+                report.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+                JOptionPane.showMessageDialog(StudentGradeTrackerGUI.this, new JScrollPane(report),
+                        "CSV Import", result.rejected == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            }
+        };
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) loadProgress.setValue((Integer) e.getNewValue());
+        });
+        worker.execute();
+    }
+
+    private void setEditingEnabled(boolean enabled) {
+        addBtn.setEnabled(enabled);
+        sortBtn.setEnabled(enabled);
+        importBtn.setEnabled(enabled);
+    }
+
     // --- SORT FUNCTION ---
     private void sortStudents() {
+        // averages are cached on each Student, so the comparator is O(1)
         students.sort((a, b) -> Double.compare(b.getAverageGrade(), a.getAverageGrade()));
-        refreshTable();
+        tableModel.studentsReordered();
         JOptionPane.showMessageDialog(this, "🏆 Sorted by average score (highest first).");
     }
 
+    // --- STATISTICS FUNCTION ---
+    // Cohort-wide distributions come from the analytics index, so this stays instant for any class size.
+    private void showStatistics() {
+        ChartPanel chart = new ChartPanel("Distribution of average scores (students per point)",
+                analytics.histogramDataset(1.0));
+
+        StringBuilder text = new StringBuilder();
+        text.append(analytics.summary(null)).append('\n');
+        for (GradeCategory c : GradeCategory.values()) text.append(analytics.summary(c)).append('\n');
+        JTextArea summary = new JTextArea(text.toString());
+        summary.setEditable(false);
+        summary.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JTextField nameField = new JTextField(16);
+        JLabel rankLabel = new JLabel(" ");
+        JButton rankBtn = new JButton("🔎 Rank");
+        ActionListener rankAction = e -> rankLabel.setText(rankText(nameField.getText().trim()));
+        rankBtn.addActionListener(rankAction);
+        nameField.addActionListener(rankAction);
+        JPanel rankPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        rankPanel.add(new JLabel("Student:"));
+        rankPanel.add(nameField);
+        rankPanel.add(rankBtn);
+        rankPanel.add(rankLabel);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(new JScrollPane(summary), BorderLayout.CENTER);
+        south.add(rankPanel, BorderLayout.SOUTH);
+
+        JDialog dialog = new JDialog(this, "📊 Cohort Statistics", false);
+        dialog.add(chart, BorderLayout.CENTER);
+        dialog.add(south, BorderLayout.SOUTH);
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private String rankText(String name) {
+        Student student = studentIndex.get(name);
+        if (student == null) return "No student named \"" + name + "\"";
+        int rank = analytics.rank(student, null);
+        if (rank == 0) return name + " has no grades yet";
+        return String.format("%s: rank %d of %d (above %.1f%% of the class)", name, rank,
+                analytics.size(null), analytics.percentileOf(student, null) * 100);
+    }
+
     // --- SAVE FUNCTION ---
     private void saveData() {
-        FileManager.saveData(students);
-        JOptionPane.showMessageDialog(this, "💾 Data saved successfully!");
+        autoSaver.flush();
+    }
+
+    // --- EXPORT FUNCTION ---
+    private void exportData() {
+        autoSaver.export(students);
     }
 
     // --- EXIT FUNCTION ---
     private void exitProgram() {
-        FileManager.saveData(students);
-        JOptionPane.showMessageDialog(this, "👋 Data saved. Exiting...");
-        System.exit(0);
+        if (loading) {
+            JOptionPane.showMessageDialog(this, "Students are still loading; please wait before exiting.");
+            return;
+        }
+        setEnabled(false);
+        statusLabel.setText("Saving before exit…");
+        autoSaver.shutdown(error -> {
+            if (error == null) {
+                JOptionPane.showMessageDialog(this, "👋 Data saved. Exiting...");
+            } else {
+                JOptionPane.showMessageDialog(this, "⚠ Could not save data: " + error + "\nRecent changes are lost. Exiting...",
+                        "Save Failed", JOptionPane.WARNING_MESSAGE);
+            }
+            System.exit(0);
+        });
     }
 
     // --- MAIN METHOD ---
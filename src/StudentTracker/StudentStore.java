@@ -0,0 +1,555 @@
+package StudentTracker;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary storage for students and grades.
+ * <p>
+ * Log file ({@code students.db}): an 8-byte header (magic, version), then records
+ * <pre>
+ *   type:byte  studentId:int  body
+ *   STUDENT body = name (2-byte length + UTF-8)
+ *   GRADE   body = category:byte  score:double
+ * </pre>
+ * The store is only ever read front to back: {@link #load} streams every student, and lookups
+ * are the caller's business (the GUI holds every student in memory with its own name map).
+ * <p>
+ * Grades added after a student was first saved land at the end of the log. Once enough such
+ * records pile up, compaction rewrites the log in the background with each student's records
+ * contiguous, so a load hands out whole students instead of patching earlier batches; the new
+ * file is synced and then renamed over the old one. A record cut short by a crash is dropped
+ * (and the log truncated) when the store is opened.
+ * <p>
+ * Versions 1 and 2 also linked every record to the previous one of its student and kept a
+ * {@code students.idx} index of the chain heads; nothing ever read them, so opening such a log
+ * rewrites it in the current format and deletes the index.
+ */
+class StudentStore implements Closeable {
+    private static final int LOG_MAGIC = 0x53544442;   // "STDB"
+    private static final int VERSION = 3;
+    private static final int LOG_HEADER = 8;
+    /** Version 2 added a generation to the header; versions 1 and 2 are rewritten on open. */
+    private static final int V2_LOG_HEADER = 16;
+    private static final byte STUDENT = 1;
+    private static final byte GRADE = 2;
+    private static final int RECORD_PREFIX = 1 + 4;
+    /** Versions 1 and 2 followed the prefix with a previous-record offset. */
+    private static final int V2_RECORD_PREFIX = RECORD_PREFIX + 8;
+    private static final int GRADE_BODY = 1 + 8;
+
+    private final Path logPath;
+    private FileChannel log;
+    private long logLength;
+    // layout of the file currently open; differs from the constants only while a legacy log is upgraded
+    private long dataStart = LOG_HEADER;
+    private int recordPrefix = RECORD_PREFIX;
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(64 * 1024);
+
+    private int studentCount;
+    private long recordsSinceCompaction;
+    private long compactedRecords;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-store-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean compacting;
+    private final Object compactLock = new Object();
+
+    private StudentStore(Path logPath) {
+        this.logPath = logPath;
+    }
+
+    /** Opens (or creates) the store, upgrading a log written by an older version. */
+    static StudentStore open(Path logPath) throws IOException {
+        StudentStore store = new StudentStore(logPath);
+        store.openFiles();
+        return store;
+    }
+
+    synchronized boolean isEmpty() { return studentCount == 0; }
+    synchronized int size() { return studentCount; }
+
+    /* ---------- writes ---------- */
+
+    /** Persists a new student and all its grades, and links the object to its store id. */
+    synchronized void appendStudent(Student s) throws IOException {
+        appendStudent(studentCount, s.getName(), s.getGrades());
+        s.storeId = studentCount - 1;
+        s.persistedGrades = s.getGradeCount();
+    }
+
+    /**
+     * Persists a new student from a snapshot of its data. Ids are handed out in append order,
+     * so a caller that serialises its appends can assign {@code expectedId} itself up front.
+     */
+    synchronized void appendStudent(int expectedId, String studentName, List<Grade> grades) throws IOException {
+        if (expectedId != studentCount) {
+            throw new IOException("Store id out of step: expected " + studentCount + " but got " + expectedId);
+        }
+        byte[] name = studentName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) throw new IOException("Student name too long");
+        int id = studentCount++;
+        ensurePending(RECORD_PREFIX + 2 + name.length);
+        pending.put(STUDENT).putInt(id).putShort((short) name.length).put(name);
+        recordsSinceCompaction++;
+        appendGrades(id, grades);
+    }
+
+    /** Persists more grades for an existing store id. */
+    synchronized void appendGrades(int id, List<Grade> grades) throws IOException {
+        if (id < 0 || id >= studentCount) throw new IOException("Unknown store id " + id);
+        for (Grade g : grades) {
+            ensurePending(RECORD_PREFIX + GRADE_BODY);
+            pending.put(GRADE).putInt(id).put((byte) g.getCategory().ordinal()).putDouble(g.getScore());
+            recordsSinceCompaction++;
+        }
+        maybeCompact();
+    }
+
+    /** Writes buffered records and forces them to disk. */
+    synchronized void flush() throws IOException {
+        writePending();
+        log.force(false);
+    }
+
+    /* ---------- reads ---------- */
+
+    /**
+     * Streams every student to {@code sink} in batches of up to {@code batchSize}, in store id order.
+     * Once a batch is handed over the loader never touches its students again; grades for them
+     * found later in the log (appended after the last compaction) travel in a later batch's
+     * late-grade list instead, for the receiver to apply on its own thread.
+     */
+    synchronized void load(int batchSize, Consumer<Batch> sink) throws IOException {
+        batchSize = Math.max(2, batchSize);
+        writePending();
+        GradeCategory[] categories = GradeCategory.values();
+        Student[] byId = new Student[studentCount];
+        int published = 0;
+        Batch batch = new Batch(logLength);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(Files.newByteChannel(logPath, StandardOpenOption.READ)), 1 << 20))) {
+            in.skipNBytes(dataStart);
+            long pos = dataStart;
+            while (pos < logLength) {
+                byte type = in.readByte();
+                int id = in.readInt();
+                if (type == STUDENT) {
+                    byte[] name = new byte[in.readUnsignedShort()];
+                    in.readFully(name);
+                    Student s = new Student(new String(name, StandardCharsets.UTF_8));
+                    s.storeId = id;
+                    byId[id] = s;
+                    batch.students.add(s);
+                    pos += RECORD_PREFIX + 2 + name.length;
+                } else {
+                    Grade g = new Grade(categories[in.readByte()], in.readDouble());
+                    if (id < published) {
+                        batch.lateOwners.add(byId[id]);
+                        batch.lateGrades.add(g);
+                    } else {
+                        byId[id].addGrade(g);
+                        byId[id].persistedGrades++;
+                    }
+                    pos += RECORD_PREFIX + GRADE_BODY;
+                }
+                if (batch.students.size() >= batchSize) {
+                    // the next record may still be a grade for the last student read, so hold it back
+                    Student last = batch.students.remove(batch.students.size() - 1);
+                    batch.bytesRead = pos;
+                    published += batch.students.size();
+                    sink.accept(batch);
+                    batch = new Batch(logLength);
+                    batch.students.add(last);
+                }
+            }
+            batch.bytesRead = pos;
+            sink.accept(batch);
+        }
+    }
+
+    /** One chunk of a streaming {@link #load}. */
+    static final class Batch {
+        final List<Student> students = new ArrayList<>();
+        final List<Student> lateOwners = new ArrayList<>();
+        final List<Grade> lateGrades = new ArrayList<>();
+        long bytesRead;
+        final long totalBytes;
+
+        Batch(long totalBytes) { this.totalBytes = totalBytes; }
+
+        /** Adds grades that belong to students delivered in earlier batches. */
+        void applyLateGrades() {
+            for (int i = 0; i < lateGrades.size(); i++) {
+                Student s = lateOwners.get(i);
+                s.addGrade(lateGrades.get(i));
+                s.persistedGrades++;
+            }
+        }
+    }
+
+    /* ---------- text format ---------- */
+
+    /**
+     * Parses the legacy {@code STUDENT:/category,score/END} text format.
+     * A student whose END line is missing is still kept; malformed grade lines are skipped.
+     */
+    static ArrayList<Student> importText(Path file) throws IOException {
+        ArrayList<Student> students = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Student current = null;
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.startsWith("STUDENT:")) {
+                    if (current != null) students.add(current);
+                    current = new Student(line.substring(8));
+                } else if (line.equals("END")) {
+                    if (current != null) students.add(current);
+                    current = null;
+                } else if (!line.isEmpty() && current != null) {
+                    int comma = line.indexOf(',');
+                    GradeCategory category = comma > 0 ? GradeCategory.parse(line, 0, comma) : null;
+                    try {
+                        if (category == null) throw new NumberFormatException();
+                        current.addGrade(new Grade(category, Double.parseDouble(line.substring(comma + 1))));
+                    } catch (NumberFormatException e) {
+                        System.out.println("Skipping malformed grade on line " + lineNo + ": " + line);
+                    }
+                }
+            }
+            if (current != null) students.add(current);
+        }
+        return students;
+    }
+
+    /** Writes the text format to a temp file and renames it over {@code file}, so a crash never leaves it half-written. */
+    static void exportText(List<Student> students, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(tmp, StandardCharsets.UTF_8))) {
+            for (Student s : students) {
+                writer.println("STUDENT:" + s.getName());
+                for (Grade g : s.getGrades()) {
+                    writer.println(g.getCategory() + "," + g.getScore());
+                }
+                writer.println("END");
+            }
+            if (writer.checkError()) throw new IOException("Failed writing " + tmp);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /* ---------- compaction ---------- */
+
+    private void maybeCompact() {
+        // compact once the tail is as large as the last compacted log, so rewrites stay amortized O(1)
+        if (compacting || recordsSinceCompaction < Math.max(65_536, compactedRecords)) return;
+        compacting = true;
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("Warning: student store compaction failed: " + e.getMessage());
+            } finally {
+                synchronized (this) { compacting = false; }
+            }
+        });
+    }
+
+    /**
+     * Rewrites the log with each student's records contiguous, in the current format.
+     * Only the final swap holds the store lock; records appended meanwhile are carried over.
+     */
+    void compact() throws IOException {
+        synchronized (compactLock) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        long upTo;
+        int n;
+        long start;
+        int prefixPad;
+        synchronized (this) {
+            writePending();
+            upTo = logLength;
+            n = studentCount;
+            start = dataStart;
+            prefixPad = recordPrefix - RECORD_PREFIX;
+        }
+
+        // pass over the log prefix: names, and grades grouped per student by counting sort
+        String[] names = new String[n];
+        int[] gradeCount = new int[n + 1];
+        long grades = 0;
+        try (DataInputStream in = openLogStream(start)) {
+            for (long pos = start; pos < upTo; ) {
+                byte type = in.readByte();
+                int id = in.readInt();
+                in.skipNBytes(prefixPad);
+                if (type == STUDENT) {
+                    byte[] name = new byte[in.readUnsignedShort()];
+                    in.readFully(name);
+                    names[id] = new String(name, StandardCharsets.UTF_8);
+                    pos += RECORD_PREFIX + prefixPad + 2 + name.length;
+                } else {
+                    in.skipNBytes(GRADE_BODY);
+                    gradeCount[id + 1]++;
+                    grades++;
+                    pos += RECORD_PREFIX + prefixPad + GRADE_BODY;
+                }
+            }
+        }
+        if (grades > Integer.MAX_VALUE) throw new IOException("Too many grades to compact in memory");
+        for (int i = 0; i < n; i++) gradeCount[i + 1] += gradeCount[i];
+        int[] fill = Arrays.copyOf(gradeCount, n);
+        byte[] cats = new byte[(int) grades];
+        double[] scores = new double[(int) grades];
+        try (DataInputStream in = openLogStream(start)) {
+            for (long pos = start; pos < upTo; ) {
+                byte type = in.readByte();
+                int id = in.readInt();
+                in.skipNBytes(prefixPad);
+                if (type == STUDENT) {
+                    int len = in.readUnsignedShort();
+                    in.skipNBytes(len);
+                    pos += RECORD_PREFIX + prefixPad + 2 + len;
+                } else {
+                    int at = fill[id]++;
+                    cats[at] = in.readByte();
+                    scores[at] = in.readDouble();
+                    pos += RECORD_PREFIX + prefixPad + GRADE_BODY;
+                }
+            }
+        }
+
+        Path tmpLog = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        long compactedLength;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpLog), 1 << 20))) {
+            out.writeInt(LOG_MAGIC);
+            out.writeInt(VERSION);
+            long pos = LOG_HEADER;
+            for (int id = 0; id < n; id++) {
+                byte[] name = names[id].getBytes(StandardCharsets.UTF_8);
+                out.writeByte(STUDENT);
+                out.writeInt(id);
+                out.writeShort(name.length);
+                out.write(name);
+                pos += RECORD_PREFIX + 2 + name.length;
+                for (int g = gradeCount[id]; g < gradeCount[id + 1]; g++) {
+                    out.writeByte(GRADE);
+                    out.writeInt(id);
+                    out.writeByte(cats[g]);
+                    out.writeDouble(scores[g]);
+                    pos += RECORD_PREFIX + GRADE_BODY;
+                }
+            }
+            compactedLength = pos;
+        }
+
+        synchronized (this) {
+            writePending();
+            // records appended while we were compacting are always in the current format
+            long carried = copyTail(upTo, tmpLog);
+            long newLength = compactedLength + (logLength - upTo);
+            sync(tmpLog);
+            log.close();
+            try {
+                Files.move(tmpLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory(logPath);
+                logLength = newLength;
+                dataStart = LOG_HEADER;
+                recordPrefix = RECORD_PREFIX;
+                compactedRecords = n + grades;
+                recordsSinceCompaction = carried;
+            } finally {
+                // after a failed rename this reopens the old log, which still holds every record
+                log = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        }
+    }
+
+    /** Appends the log's records from {@code from} on to {@code target}; returns how many were copied. */
+    private long copyTail(long from, Path target) throws IOException {
+        long copied = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath), 1 << 20));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(target, StandardOpenOption.APPEND), 1 << 20))) {
+            in.skipNBytes(from);
+            for (long at = from; at < logLength; copied++) {
+                byte type = in.readByte();
+                out.writeByte(type);
+                out.writeInt(in.readInt());
+                if (type == STUDENT) {
+                    int nameLen = in.readUnsignedShort();
+                    out.writeShort(nameLen);
+                    out.write(in.readNBytes(nameLen));
+                    at += RECORD_PREFIX + 2 + nameLen;
+                } else {
+                    out.write(in.readNBytes(GRADE_BODY));
+                    at += RECORD_PREFIX + GRADE_BODY;
+                }
+            }
+        }
+        return copied;
+    }
+
+    /* ---------- open / recovery ---------- */
+
+    private void openFiles() throws IOException {
+        long size = Files.exists(logPath) ? Files.size(logPath) : 0;
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int version = 0;
+        if (size >= LOG_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            readFully(log, header, 0);
+            version = header.getInt(4);
+            if (header.getInt(0) != LOG_MAGIC || version < 1 || version > VERSION) {
+                log.close();
+                throw new IOException("Not a student store: " + logPath);
+            }
+        }
+        if (size < LOG_HEADER || (version == 2 && size < V2_LOG_HEADER)) {
+            // new, or cut short before the header was complete
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER).putInt(LOG_MAGIC).putInt(VERSION);
+            header.flip();
+            log.truncate(0);
+            log.write(header, 0);
+            logLength = LOG_HEADER;
+            return;
+        }
+        logLength = log.size();
+        if (version < VERSION) {
+            dataStart = version == 2 ? V2_LOG_HEADER : LOG_HEADER;
+            recordPrefix = V2_RECORD_PREFIX;
+        }
+        scan();
+        if (version < VERSION) {
+            System.out.println("Student store: upgrading " + logPath + " to format version " + VERSION);
+            compact();
+            String file = logPath.getFileName().toString();
+            int dot = file.lastIndexOf('.');
+            Files.deleteIfExists(logPath.resolveSibling((dot > 0 ? file.substring(0, dot) : file) + ".idx"));
+        }
+    }
+
+    /** Counts the students in the log, truncating a torn final record. */
+    private void scan() throws IOException {
+        long pos = dataStart;
+        long records = 0;
+        int prefixPad = recordPrefix - RECORD_PREFIX;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(log.position(pos)), 1 << 16))) {
+            while (pos < logLength) {
+                long start = pos;
+                try {
+                    byte type = in.readByte();
+                    int id = in.readInt();
+                    in.skipNBytes(prefixPad);
+                    if (type == STUDENT) {
+                        int nameLength = in.readUnsignedShort();
+                        in.skipNBytes(nameLength);
+                        if (id != studentCount) throw new EOFException();
+                        studentCount++;
+                        pos += recordPrefix + 2 + nameLength;
+                    } else if (type == GRADE) {
+                        in.skipNBytes(GRADE_BODY);
+                        if (id < 0 || id >= studentCount) throw new EOFException();
+                        pos += recordPrefix + GRADE_BODY;
+                    } else {
+                        throw new EOFException();
+                    }
+                    if (pos > logLength) throw new EOFException();
+                    records++;
+                } catch (EOFException e) {
+                    System.out.println("Student store: dropping incomplete record at offset " + start);
+                    logLength = start;
+                    break;
+                }
+            }
+        } finally {
+            // closing the stream closed the channel
+            log = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        if (log.size() > logLength) log.truncate(logLength);
+        // how much of the log is already grouped is unknown, so pace the next compaction off all of it
+        compactedRecords = records;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private DataInputStream openLogStream(long from) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath), 1 << 20));
+        in.skipNBytes(from);
+        return in;
+    }
+
+    private static void sync(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+    }
+
+    /** Makes the renames durable; not every platform can open a directory, so this is best effort. */
+    private static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void ensurePending(int bytes) throws IOException {
+        if (pending.remaining() < bytes) writePending();
+    }
+
+    /** On failure whatever was not written stays buffered, so the next flush retries it. */
+    private void writePending() throws IOException {
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) logLength += log.write(pending, logLength);
+        } finally {
+            pending.compact();
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long at) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, at);
+            if (n < 0) throw new EOFException();
+            at += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, java.util.concurrent.TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            log.close();
+        }
+    }
+}
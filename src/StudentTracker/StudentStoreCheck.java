@@ -0,0 +1,113 @@
+package StudentTracker;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * StudentStoreCheck
+ * ----------------
+ * Runnable round-trip checks for {@link StudentStore}, in a temporary directory:
+ *
+ * - Students and grades appended in any order (later grades land after other students) load
+ *   back identical, before and after compaction and after reopening.
+ * - A record cut short at the end of the log is dropped when the store is opened.
+ * - Append and load throughput.
+ *
+ * Run: java StudentTracker.StudentStoreCheck [students] [gradesPerStudent]
+ * Exits with status 1 if a check fails.
+ */
+class StudentStoreCheck {
+    public static void main(String[] args) throws IOException {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int grades = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        boolean ok = true;
+        Path dir = Files.createTempDirectory("student-store-check");
+        Path db = dir.resolve("students.db");
+        try {
+            // half of each student's grades go in with it, the rest in a second pass at the end
+            Random rng = new Random(3);
+            List<Student> expected = new ArrayList<>(students);
+            long started = System.nanoTime();
+            try (StudentStore store = StudentStore.open(db)) {
+                for (int i = 0; i < students; i++) {
+                    Student s = new Student("Student " + i);
+                    for (int g = 0; g < grades / 2; g++) s.addGrade(randomGrade(rng));
+                    store.appendStudent(s);
+                    expected.add(s);
+                }
+                for (Student s : expected) {
+                    List<Grade> more = new ArrayList<>();
+                    for (int g = grades / 2; g < grades; g++) more.add(randomGrade(rng));
+                    for (Grade g : more) s.addGrade(g);
+                    store.appendGrades(s.storeId, more);
+                }
+                store.flush();
+            }
+            long records = (long) students * (grades + 1);
+            System.out.printf("Append: %,d records in %d ms%n", records, (System.nanoTime() - started) / 1_000_000);
+
+            ok &= check(same(expected, load(db)), "students differ after reopening");
+            try (StudentStore store = StudentStore.open(db)) {
+                store.compact();
+            }
+            started = System.nanoTime();
+            List<Student> compacted = load(db);
+            System.out.printf("Load after compaction: %,d students in %d ms (%,d bytes)%n",
+                    compacted.size(), (System.nanoTime() - started) / 1_000_000, Files.size(db));
+            ok &= check(same(expected, compacted), "students differ after compaction");
+
+            long length = Files.size(db);
+            try (RandomAccessFile raf = new RandomAccessFile(db.toFile(), "rw")) {
+                raf.seek(length);
+                raf.write(new byte[] { 2, 0, 0, 0, 0, 1 }); // a grade record cut off after its category
+            }
+            ok &= check(same(expected, load(db)), "students differ after dropping a torn record");
+            ok &= check(Files.size(db) == length, "torn record was not truncated");
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path f : files) Files.delete(f);
+            }
+            Files.delete(dir);
+        }
+
+        System.out.println(ok ? "All student store checks passed." : "Student store checks FAILED.");
+        if (!ok) System.exit(1);
+    }
+
+    private static Grade randomGrade(Random rng) {
+        GradeCategory[] categories = GradeCategory.values();
+        return new Grade(categories[rng.nextInt(categories.length)], rng.nextInt(10_001) / 100.0);
+    }
+
+    private static List<Student> load(Path db) throws IOException {
+        List<Student> loaded = new ArrayList<>();
+        try (StudentStore store = StudentStore.open(db)) {
+            store.load(10_000, batch -> {
+                batch.applyLateGrades();
+                loaded.addAll(batch.students);
+            });
+        }
+        return loaded;
+    }
+
+    private static boolean same(List<Student> expected, List<Student> actual) {
+        if (expected.size() != actual.size()) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            Student a = expected.get(i), b = actual.get(i);
+            if (!a.getName().equals(b.getName()) || a.getGradeCount() != b.getGradeCount()) return false;
+            // grades of one student keep their order in the log, whatever else is interleaved
+            for (int g = 0; g < a.getGradeCount(); g++) {
+                Grade x = a.getGrades().get(g), y = b.getGrades().get(g);
+                if (x.getCategory() != y.getCategory() || x.getScore() != y.getScore()) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean check(boolean condition, String failure) {
+        if (!condition) System.out.println("FAILED: " + failure);
+        return condition;
+    }
+}
@@ -0,0 +1,79 @@
+package StudentTracker;
+
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.text.DecimalFormat;
+import java.util.List;
+
+/**
+ * Table model that reads straight from the student list. Nothing is precomputed: JTable only
+ * asks for the cells it paints, so cost follows the visible rows, not the class size.
+ * Callers report changes with the row-level notify methods instead of rebuilding the table.
+ */
+@SuppressWarnings("serial") // Swing model, never serialized
+class StudentTableModel extends AbstractTableModel {
+    static final int NAME = 0, GRADES = 1, AVERAGE = 2, HIGHEST = 3, LOWEST = 4;
+    private static final String[] COLUMNS = {"Student Name", "Grades", "Average", "Highest", "Lowest"};
+    /** Grades shown per cell; the rest are summarised so huge grade lists stay cheap to paint. */
+    private static final int MAX_GRADES_SHOWN = 20;
+
+    private final List<Student> students;
+
+    StudentTableModel(List<Student> students) {
+        this.students = students;
+    }
+
+    @Override public int getRowCount() { return students.size(); }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int column) { return COLUMNS[column]; }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column >= AVERAGE ? Double.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student s = students.get(row);
+        switch (column) {
+            case NAME: return s.getName();
+            case GRADES: return gradesText(s);
+            case AVERAGE: return s.getAverageGrade();
+            case HIGHEST: return s.getHighestGrade();
+            default: return s.getLowestGrade();
+        }
+    }
+
+    private static String gradesText(Student s) {
+        List<Grade> grades = s.getGrades();
+        int shown = Math.min(grades.size(), MAX_GRADES_SHOWN);
+        StringBuilder sb = new StringBuilder(shown * 16);
+        for (int i = 0; i < shown; i++) sb.append(grades.get(i)).append(" | ");
+        if (grades.size() > shown) sb.append("… (+").append(grades.size() - shown).append(" more)");
+        return sb.toString();
+    }
+
+    /* ---------- change notification ---------- */
+
+    void studentsAdded(int firstRow, int lastRow) { fireTableRowsInserted(firstRow, lastRow); }
+    /**
+     * For reorderings such as a sort, where every row may now show a different student, and for
+     * bulk changes such as an import, where finding the rows would cost more than one repaint.
+     */
+    void studentsReordered() {
+        if (!students.isEmpty()) fireTableRowsUpdated(0, students.size() - 1);
+    }
+
+    /** Right-aligned two-decimal renderer for the score columns. */
+    @SuppressWarnings("serial")
+    static final class ScoreRenderer extends DefaultTableCellRenderer {
+        private final DecimalFormat format = new DecimalFormat("0.00");
+
+        ScoreRenderer() { setHorizontalAlignment(RIGHT); }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Number ? format.format(((Number) value).doubleValue()) : "");
+        }
+    }
+}